@@ -53,6 +53,9 @@ public class AppConfig {
     @Value("${notification.api.endpoint:/charging/api/orderManagement/notify}")
     private String notificationEndpoint;
     
+    @Value("${notification.api.batch-endpoint:/charging/api/orderManagement/notify/batch}")
+    private String notificationBatchEndpoint;
+    
     @Value("${did.identifier:did:elsi:VATES-11111111P}")
     private String didIdentifier;
     
@@ -72,6 +75,10 @@ public class AppConfig {
         return notificationEndpoint;
     }
     
+    public String getNotificationBatchEndpoint() {
+        return notificationBatchEndpoint;
+    }
+    
     public String getDidIdentifier() {
         return didIdentifier;
     }
@@ -110,13 +117,11 @@ public class AppConfig {
     @Value("${spring.profiles.active:local}")
     private String activeProfile;
 
+    /**
+     * Pooled Apache HttpClient5 request factory shared by the TMForum clients.
+     */
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        RestTemplate restTemplate = builder
-                .setConnectTimeout(Duration.ofSeconds(30))
-                .setReadTimeout(Duration.ofSeconds(60))
-                .build();
-        
+    public HttpComponentsClientHttpRequestFactory tmforumRequestFactory() {
         try {
             // Configure Apache HttpClient5 with SSL trust all for development
             //TODO: Change the certificate for PROD
@@ -149,11 +154,21 @@ public class AppConfig {
             requestFactory.setConnectTimeout(30000); // 30 seconds
             requestFactory.setConnectionRequestTimeout(30000); // 30 seconds
             
-            restTemplate.setRequestFactory(requestFactory);
+            return requestFactory;
             
         } catch (Exception e) {
             throw new RuntimeException("Failed to configure SSL context", e);
         }
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, HttpComponentsClientHttpRequestFactory tmforumRequestFactory) {
+        RestTemplate restTemplate = builder
+                .setConnectTimeout(Duration.ofSeconds(30))
+                .setReadTimeout(Duration.ofSeconds(60))
+                .build();
+        
+        restTemplate.setRequestFactory(tmforumRequestFactory);
         
         // Add interceptor to set default headers for all requests
         restTemplate.setInterceptors(Arrays.asList(
@@ -0,0 +1,105 @@
+package com.dome.quotemanagement.config;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executors used to run upstream TMForum calls off the request thread.
+ *
+ * Every executor propagates the SLF4J MDC of the submitting thread so the
+ * correlation ID keeps appearing in logs and outgoing X-Correlation-ID headers.
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Value("${quote.pagination.max-threads:16}")
+    private int paginationMaxThreads;
+
+    @Value("${quote.scheduler.action-concurrency:8}")
+    private int schedulerActionConcurrency;
+
+    @Value("${quote.create.lookup-threads:16}")
+    private int createLookupThreads;
+
+    @Bean(name = "quotePageExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor quotePageExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(paginationMaxThreads);
+        executor.setMaxPoolSize(paginationMaxThreads);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("quote-page-");
+        executor.setTaskDecorator(mdcTaskDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs scheduler actions (status and note PATCHes, notifications) for several quotes at once.
+     * Only a few actions wait in the queue; beyond that the submitting scheduler thread runs the
+     * action itself, which throttles the crawl instead of buffering an unbounded backlog.
+     */
+    @Bean(name = "schedulerActionExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor schedulerActionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(schedulerActionConcurrency);
+        executor.setMaxPoolSize(schedulerActionConcurrency);
+        executor.setQueueCapacity(schedulerActionConcurrency);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("quote-action-");
+        executor.setTaskDecorator(mdcTaskDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs the independent upstream lookups of a quote creation (seller, buyer name, buyer operator)
+     * concurrently. When saturated the request thread runs the lookup itself.
+     */
+    @Bean(name = "createLookupExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor createLookupExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(createLookupThreads);
+        executor.setMaxPoolSize(createLookupThreads);
+        executor.setQueueCapacity(createLookupThreads);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("quote-lookup-");
+        executor.setTaskDecorator(mdcTaskDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Copies the MDC context (correlation ID) of the caller into the worker thread.
+     */
+    static TaskDecorator mdcTaskDecorator() {
+        return runnable -> {
+            Map<String, String> context = MDC.getCopyOfContextMap();
+            return () -> {
+                Map<String, String> previous = MDC.getCopyOfContextMap();
+                if (context != null) {
+                    MDC.setContextMap(context);
+                } else {
+                    MDC.clear();
+                }
+                try {
+                    runnable.run();
+                } finally {
+                    if (previous != null) {
+                        MDC.setContextMap(previous);
+                    } else {
+                        MDC.clear();
+                    }
+                }
+            };
+        };
+    }
+}
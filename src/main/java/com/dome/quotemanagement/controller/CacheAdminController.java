@@ -0,0 +1,84 @@
+package com.dome.quotemanagement.controller;
+
+import com.dome.quotemanagement.service.OrganizationResolver;
+import com.dome.quotemanagement.service.ProductOfferingResolver;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin/cache")
+@RequiredArgsConstructor
+@Tag(name = "Cache Administration", description = "API for invalidating cached TMForum lookups")
+@Slf4j
+public class CacheAdminController {
+
+    private final OrganizationResolver organizationResolver;
+    private final ProductOfferingResolver productOfferingResolver;
+
+    @DeleteMapping("/organizations/{id}")
+    @Operation(
+        summary = "Invalidate cached organization",
+        description = "Drops the cached tradingName of an organization, so the next lookup calls /party/v4/organization/{id} again"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Cache entry invalidated")
+    })
+    public ResponseEntity<Void> invalidateOrganization(
+            @Parameter(description = "Organization ID", required = true)
+            @PathVariable String id) {
+        log.info("Received request to invalidate cached organization - organizationId: '{}'", id);
+        organizationResolver.invalidate(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/organizations")
+    @Operation(
+        summary = "Invalidate all cached organizations",
+        description = "Drops every cached organization tradingName"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Cache invalidated")
+    })
+    public ResponseEntity<Void> invalidateOrganizations() {
+        log.info("Received request to invalidate all cached organizations");
+        organizationResolver.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/productOfferings/{id}")
+    @Operation(
+        summary = "Invalidate cached ProductOffering",
+        description = "Drops a cached ProductOffering, so the next lookup calls /productCatalogManagement/v4/productOffering/{id} again"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Cache entry invalidated")
+    })
+    public ResponseEntity<Void> invalidateProductOffering(
+            @Parameter(description = "ProductOffering ID", required = true)
+            @PathVariable String id) {
+        log.info("Received request to invalidate cached ProductOffering - productOfferingId: '{}'", id);
+        productOfferingResolver.invalidate(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/productOfferings")
+    @Operation(
+        summary = "Invalidate all cached ProductOfferings",
+        description = "Drops every cached ProductOffering"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Cache invalidated")
+    })
+    public ResponseEntity<Void> invalidateProductOfferings() {
+        log.info("Received request to invalidate all cached ProductOfferings");
+        productOfferingResolver.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.dome.quotemanagement.controller;
 
+import com.dome.quotemanagement.dto.AttachmentOperationDTO;
 import com.dome.quotemanagement.dto.QuoteCreateRequestDTO;
 import com.dome.quotemanagement.dto.TenderingQuoteCreateRequestDTO;
 import com.dome.quotemanagement.dto.CoordinatorQuoteCreateRequestDTO;
@@ -20,7 +21,9 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -383,30 +386,46 @@ public class QuoteManagementController {
     @PatchMapping(value = "/addAttachmentToQuote/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(
         summary = "Add attachment to quote", 
-        description = "Adds a PDF attachment to the quote via TMForum Document API. Only PDF files up to 10MB are allowed. Backend calls: Document API POST + /quote/{id} PATCH"
+        description = "Adds a PDF attachment to the quote via TMForum Document API. Only PDF files up to 10MB are allowed. " +
+                      "With 'Prefer: respond-async' (or attachment.verification.mode=async), an upload whose persistence is not yet " +
+                      "confirmed is answered with 202 and the URL of its status. Backend calls: Document API POST + /quote/{id} PATCH"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Quote attachment added successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = QuoteDTO.class))),
+        @ApiResponse(responseCode = "202", description = "Quote attachment added, persistence being verified (see Location)",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = AttachmentOperationDTO.class))),
         @ApiResponse(responseCode = "404", description = "Quote not found"),
         @ApiResponse(responseCode = "400", description = "Invalid file or description"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<QuoteDTO> updateQuoteAttachment(
+    public ResponseEntity<?> updateQuoteAttachment(
             @Parameter(description = "Quote ID", required = true)
             @PathVariable String id,
             @Parameter(description = "PDF file to attach (max 10MB)", required = true)
             @RequestParam("file") MultipartFile file,
             @Parameter(description = "Description of the attachment", required = false)
-            @RequestParam(value = "description", required = false, defaultValue = "") String description) {
+            @RequestParam(value = "description", required = false, defaultValue = "") String description,
+            @Parameter(description = "'respond-async' to not wait for the persistence verification", required = false)
+            @RequestHeader(value = "Prefer", required = false) String prefer) {
         log.info("Received request to add attachment to quote - quoteId: '{}', filename: '{}', size: {} bytes, description: '{}'", 
                 id, file.getOriginalFilename(), file.getSize(), description);
         
+        boolean respondAsync = prefer != null && prefer.toLowerCase().contains("respond-async");
         try {
-            return quoteService.updateQuoteAttachment(id, file, description)
-                    .map(quote -> {
+            return quoteService.submitQuoteAttachment(id, file, description, respondAsync)
+                    .<ResponseEntity<?>>map(operation -> {
+                        if (AttachmentOperationDTO.STATUS_PENDING.equals(operation.getStatus())) {
+                            log.info("Accepted attachment for quote - quoteId: '{}', filename: '{}', operationId: '{}'",
+                                    id, file.getOriginalFilename(), operation.getOperationId());
+                            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                                    .path("/quoteManagement/attachmentOperations/{operationId}")
+                                    .buildAndExpand(operation.getOperationId())
+                                    .toUri();
+                            return ResponseEntity.accepted().location(location).body(operation);
+                        }
                         log.info("Successfully added attachment to quote - quoteId: '{}', filename: '{}'", id, file.getOriginalFilename());
-                        return ResponseEntity.ok(quote);
+                        return ResponseEntity.ok(operation.getQuote());
                     })
                     .orElseGet(() -> {
                         log.warn("Quote not found for attachment upload - quoteId: '{}'", id);
@@ -421,6 +440,25 @@ public class QuoteManagementController {
         }
     }
 
+    @GetMapping("/attachmentOperations/{operationId}")
+    @Operation(
+        summary = "Get attachment operation",
+        description = "Retrieves the status of an attachment upload accepted with 202: pending, succeeded or failed. No backend calls"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved the operation",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = AttachmentOperationDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Operation not found or expired")
+    })
+    public ResponseEntity<AttachmentOperationDTO> getAttachmentOperation(
+            @Parameter(description = "Operation ID", required = true)
+            @PathVariable String operationId) {
+        log.debug("Received request to get attachment operation - operationId: '{}'", operationId);
+        return quoteService.findAttachmentOperation(operationId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/removeAttachmentFromQuote/{id}")
     @Operation(
         summary = "Remove attachment from quote",
@@ -0,0 +1,34 @@
+package com.dome.quotemanagement.dto;
+
+import com.dome.quotemanagement.dto.tmforum.QuoteDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Status of an attachment upload whose persistence on the quote is verified in the background.
+ * The quote is only carried by an upload verified before responding.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentOperationDTO {
+
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_SUCCEEDED = "succeeded";
+    public static final String STATUS_FAILED = "failed";
+
+    private String operationId;
+    private String quoteId;
+    private String documentId;
+    private String status;
+    private int attempts;
+    private String message;
+    private String createdAt;
+    private String completedAt;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private QuoteDTO quote;
+}
@@ -0,0 +1,31 @@
+package com.dome.quotemanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Body of the batch notification route: several notifications, each with its own idempotency key.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationBatchRequestDTO {
+    private List<Item> notifications;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String idempotencyKey;
+        private String sender;
+        private String recipient;
+        private String subject;
+        private String message;
+    }
+}
@@ -0,0 +1,71 @@
+package com.dome.quotemanagement.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * An attachment upload whose persistence on the quote is verified in the background.
+ *
+ * A pending row is checked once nextAttemptAt has passed; claiming a row moves nextAttemptAt forward by a lease,
+ * so a check lost with its instance is picked up again when the lease expires. Completed rows are kept for the
+ * retention period, so clients can poll the outcome on any instance.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "attachment_operation", indexes = {
+    @Index(name = "idx_attachment_operation_due", columnList = "status, next_attempt_at")
+})
+public class AttachmentOperationEntity {
+
+    @Id
+    @Column(name = "operation_id", length = 36)
+    private String operationId;
+
+    @Column(name = "quote_id", nullable = false)
+    private String quoteId;
+
+    @Column(name = "document_id", nullable = false)
+    private String documentId;
+
+    /** The document the upload replaces, released once the new one is confirmed. */
+    @Column(name = "previous_document_id")
+    private String previousDocumentId;
+
+    /** One of the AttachmentOperationDTO statuses. */
+    @Column(name = "status", nullable = false, length = 16)
+    private String status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "message", length = 1000)
+    private String message;
+
+    /** Correlation ID of the upload request, restored while checking. */
+    @Column(name = "correlation_id")
+    private String correlationId;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Version
+    @Column(name = "version")
+    private long version;
+}
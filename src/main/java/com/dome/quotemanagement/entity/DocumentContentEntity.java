@@ -0,0 +1,37 @@
+package com.dome.quotemanagement.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * The content hash of a document uploaded to the TMForum Document API, so a re-upload of identical content can
+ * reuse the document instead of creating a new one.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "document_content")
+public class DocumentContentEntity {
+
+    @Id
+    @Column(name = "document_id", length = 255)
+    private String documentId;
+
+    /** Hex-encoded SHA-256 of the uploaded file. */
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
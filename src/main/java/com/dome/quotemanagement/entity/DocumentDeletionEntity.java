@@ -0,0 +1,80 @@
+package com.dome.quotemanagement.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A document waiting to be deleted from the TMForum Document API.
+ *
+ * A pending row is due once nextAttemptAt has passed; claiming a row moves nextAttemptAt forward by a lease,
+ * so a deletion lost with its instance is picked up again when the lease expires. The row is removed once the
+ * document is deleted, and kept as dead when the attempts run out.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "document_deletion", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_document_deletion_document", columnNames = "document_id")
+}, indexes = {
+    @Index(name = "idx_document_deletion_due", columnList = "status, next_attempt_at")
+})
+public class DocumentDeletionEntity {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_DEAD = "DEAD";
+
+    /** The document was replaced by a new upload. */
+    public static final String REASON_REPLACED = "replaced";
+    /** The attachment was removed from its quote. */
+    public static final String REASON_REMOVED = "removed";
+    /** The document was created by this service but no quote references it. */
+    public static final String REASON_ORPHAN = "orphan";
+    /** The document was uploaded but its reference was never confirmed on the quote. */
+    public static final String REASON_UNVERIFIED = "unverified";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "document_id", nullable = false, length = 255)
+    private String documentId;
+
+    /** The quote the document was attached to, null for orphans. */
+    @Column(name = "quote_id")
+    private String quoteId;
+
+    @Column(name = "reason", nullable = false, length = 16)
+    private String reason;
+
+    @Column(name = "status", nullable = false, length = 16)
+    private String status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Version
+    @Column(name = "version")
+    private long version;
+}
@@ -0,0 +1,95 @@
+package com.dome.quotemanagement.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A notification waiting in the outbox, or already delivered.
+ *
+ * A pending row is due once nextAttemptAt has passed, which is delayed by the coalescing window when
+ * notifications are coalesced; claiming a row for delivery moves nextAttemptAt
+ * forward by a lease, so a delivery lost with its instance is picked up again when the lease expires.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "notification_outbox", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_notification_outbox_key", columnNames = "idempotency_key")
+}, indexes = {
+    @Index(name = "idx_notification_outbox_due", columnList = "status, next_attempt_at")
+})
+public class NotificationOutboxEntity {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_DEAD = "DEAD";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Derived from the quote id and the event; sent as the Idempotency-Key header. */
+    @Column(name = "idempotency_key", nullable = false, length = 255)
+    private String idempotencyKey;
+
+    @Column(name = "quote_id")
+    private String quoteId;
+
+    @Column(name = "event")
+    private String event;
+
+    @Column(name = "sender")
+    private String sender;
+
+    @Column(name = "recipient")
+    private String recipient;
+
+    @Column(name = "subject", length = 1000)
+    private String subject;
+
+    @Column(name = "message", columnDefinition = "TEXT")
+    private String message;
+
+    @Column(name = "status", nullable = false, length = 16)
+    private String status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    /** While in the future, further notifications to the same recipient about the same quote are merged into this row. */
+    @Column(name = "coalescing_until")
+    private Instant coalescingUntil;
+
+    /** The number of notifications merged into this row. */
+    @Column(name = "coalesced_count", nullable = false)
+    private int coalescedCount;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "sent_at")
+    private Instant sentAt;
+
+    @Version
+    @Column(name = "version")
+    private long version;
+}
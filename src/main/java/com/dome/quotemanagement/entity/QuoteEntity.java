@@ -0,0 +1,40 @@
+package com.dome.quotemanagement.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Persisted TMForum quote, stored as the complete QuoteDTO in JSON with its listing position.
+ *
+ * The table only serves the read model warm start, which loads every row; queries are answered from the
+ * in-memory model, so no attribute is broken out into columns.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "quote_projection")
+public class QuoteEntity {
+
+    @Id
+    @Column(name = "id", length = 255)
+    private String id;
+
+    /** Position of the quote in the TMForum listing order. */
+    @Column(name = "listing_position", nullable = false)
+    private long listingPosition;
+
+    /** The complete quote as JSON. */
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,44 @@
+package com.dome.quotemanagement.enums;
+
+/**
+ * Enum representing the TMForum quote item states that notifications refer to.
+ */
+public enum QuoteStatus {
+    IN_PROGRESS("inProgress"),
+    PENDING("pending"),
+    APPROVED("approved"),
+    ACCEPTED("accepted"),
+    CANCELLED("cancelled"),
+    REJECTED("rejected");
+
+    private final String value;
+
+    QuoteStatus(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Get QuoteStatus from string value, ignoring case. "canceled" is accepted for CANCELLED.
+     * @param value the string value
+     * @return the corresponding QuoteStatus, or null if value is null or not a known status
+     */
+    public static QuoteStatus fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if ("canceled".equalsIgnoreCase(trimmed)) {
+            return CANCELLED;
+        }
+        for (QuoteStatus status : QuoteStatus.values()) {
+            if (status.value.equalsIgnoreCase(trimmed)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
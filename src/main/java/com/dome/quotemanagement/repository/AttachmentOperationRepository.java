@@ -0,0 +1,27 @@
+package com.dome.quotemanagement.repository;
+
+import com.dome.quotemanagement.entity.AttachmentOperationEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface AttachmentOperationRepository extends JpaRepository<AttachmentOperationEntity, String> {
+
+    /**
+     * @return the rows in the given status due at the given time, oldest first
+     */
+    List<AttachmentOperationEntity> findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(String status, Instant now, Pageable page);
+
+    long countByStatus(String status);
+
+    @Modifying
+    @Query("delete from AttachmentOperationEntity o where o.completedAt < :before")
+    int deleteCompletedBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,22 @@
+package com.dome.quotemanagement.repository;
+
+import com.dome.quotemanagement.entity.DocumentContentEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface DocumentContentRepository extends JpaRepository<DocumentContentEntity, String> {
+
+    /**
+     * Keyset page of the documents uploaded before the given time, so rows deleted between pages shift nothing.
+     * @param before the upload time bound
+     * @param afterDocumentId the last document id of the previous page, empty for the first page
+     * @return the next documents, by document id
+     */
+    List<DocumentContentEntity> findByCreatedAtBeforeAndDocumentIdGreaterThanOrderByDocumentIdAsc(
+        Instant before, String afterDocumentId, Pageable pageable);
+}
@@ -0,0 +1,22 @@
+package com.dome.quotemanagement.repository;
+
+import com.dome.quotemanagement.entity.DocumentDeletionEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface DocumentDeletionRepository extends JpaRepository<DocumentDeletionEntity, Long> {
+
+    boolean existsByDocumentId(String documentId);
+
+    /**
+     * @return the rows in the given status due at the given time, oldest first
+     */
+    List<DocumentDeletionEntity> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(String status, Instant now, Pageable page);
+
+    long countByStatus(String status);
+}
@@ -0,0 +1,35 @@
+package com.dome.quotemanagement.repository;
+
+import com.dome.quotemanagement.entity.NotificationOutboxEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEntity, Long> {
+
+    boolean existsByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * @return the rows in the given status due at the given time, oldest first
+     */
+    List<NotificationOutboxEntity> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(String status, Instant now, Pageable page);
+
+    /**
+     * @return the rows in the given status for a recipient and quote still open for coalescing at the given time, oldest first
+     */
+    List<NotificationOutboxEntity> findByStatusAndRecipientAndQuoteIdAndCoalescingUntilAfterOrderByIdAsc(
+        String status, String recipient, String quoteId, Instant now);
+
+    long countByStatus(String status);
+
+    @Modifying
+    @Query("delete from NotificationOutboxEntity o where o.status = :status and o.sentAt < :before")
+    int deleteSentBefore(@Param("status") String status, @Param("before") Instant before);
+}
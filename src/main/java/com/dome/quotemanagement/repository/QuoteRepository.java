@@ -0,0 +1,16 @@
+package com.dome.quotemanagement.repository;
+
+import com.dome.quotemanagement.entity.QuoteEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface QuoteRepository extends JpaRepository<QuoteEntity, String> {
+
+    /**
+     * @return every persisted quote, in the TMForum listing order
+     */
+    List<QuoteEntity> findAllByOrderByListingPositionAsc();
+}
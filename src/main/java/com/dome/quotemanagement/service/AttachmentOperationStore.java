@@ -0,0 +1,162 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.dto.AttachmentOperationDTO;
+import com.dome.quotemanagement.entity.AttachmentOperationEntity;
+import com.dome.quotemanagement.repository.AttachmentOperationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Durable store of the background attachment verifications, in the configured JPA datasource next to the
+ * notification outbox, so an operation can be polled on any instance sharing the datasource and survives a
+ * restart, unless the datasource is an in-memory database. The checks themselves are run by
+ * {@link AttachmentVerifier}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AttachmentOperationStore {
+
+    private static final int MAX_MESSAGE_LENGTH = 1000;
+
+    private final AttachmentOperationRepository operationRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${attachment.verification.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${attachment.verification.operation-retention-minutes:60}")
+    private long retentionMinutes;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("attachment.operation.pending", operationRepository,
+                repository -> repository.countByStatus(AttachmentOperationDTO.STATUS_PENDING))
+            .description("Attachment uploads whose persistence on the quote is still being verified")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Store a new pending operation.
+     * @param quoteId the quote id
+     * @param documentId the document that must be referenced
+     * @param previousDocumentId the document the upload replaces, null if none
+     * @param correlationId the correlation ID of the upload request, null if none
+     * @param firstAttemptAt when the first check is due
+     * @return the stored operation
+     */
+    @Transactional
+    public AttachmentOperationEntity create(String quoteId, String documentId, String previousDocumentId,
+                                           String correlationId, Instant firstAttemptAt) {
+        AttachmentOperationEntity entity = new AttachmentOperationEntity();
+        entity.setOperationId(UUID.randomUUID().toString());
+        entity.setQuoteId(quoteId);
+        entity.setDocumentId(documentId);
+        entity.setPreviousDocumentId(previousDocumentId);
+        entity.setCorrelationId(correlationId);
+        entity.setStatus(AttachmentOperationDTO.STATUS_PENDING);
+        entity.setNextAttemptAt(firstAttemptAt);
+        entity.setCreatedAt(Instant.now());
+        return operationRepository.save(entity);
+    }
+
+    /**
+     * @param operationId the operation id
+     * @return the operation, empty if unknown or purged
+     */
+    @Transactional(readOnly = true)
+    public Optional<AttachmentOperationEntity> find(String operationId) {
+        return operationRepository.findById(operationId);
+    }
+
+    /**
+     * Lease the oldest due operations. Fails with an optimistic locking exception when another instance claimed
+     * some of the rows concurrently; nothing is claimed then.
+     * @param limit the maximum number of rows
+     * @return the claimed rows
+     */
+    @Transactional
+    public List<AttachmentOperationEntity> claimDue(int limit) {
+        Instant now = Instant.now();
+        List<AttachmentOperationEntity> due = operationRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+            AttachmentOperationDTO.STATUS_PENDING, now, PageRequest.of(0, limit));
+        for (AttachmentOperationEntity entity : due) {
+            entity.setNextAttemptAt(now.plusMillis(leaseMs));
+        }
+        return operationRepository.saveAllAndFlush(due);
+    }
+
+    /**
+     * Record an inconclusive check.
+     * @param operationId the operation id
+     * @param attempts the checks made so far
+     * @param nextAttemptAt when the next check is due
+     */
+    @Transactional
+    public void markRetry(String operationId, int attempts, Instant nextAttemptAt) {
+        operationRepository.findById(operationId).ifPresent(entity -> {
+            entity.setAttempts(attempts);
+            entity.setNextAttemptAt(nextAttemptAt);
+        });
+    }
+
+    /**
+     * Record the outcome of an operation.
+     * @param operationId the operation id
+     * @param status succeeded or failed
+     * @param attempts the checks made
+     * @param message the reason of a failure, null otherwise
+     */
+    @Transactional
+    public void complete(String operationId, String status, int attempts, String message) {
+        operationRepository.findById(operationId).ifPresent(entity -> {
+            entity.setStatus(status);
+            entity.setAttempts(attempts);
+            entity.setMessage(message != null && message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message);
+            entity.setCompletedAt(Instant.now());
+        });
+    }
+
+    /**
+     * Delete operations completed before the retention period.
+     */
+    @Scheduled(fixedDelayString = "${attachment.verification.purge-interval-ms:600000}",
+        initialDelayString = "${attachment.verification.purge-interval-ms:600000}")
+    @Transactional
+    public void purgeCompleted() {
+        int deleted = operationRepository.deleteCompletedBefore(Instant.now().minus(Duration.ofMinutes(retentionMinutes)));
+        if (deleted > 0) {
+            log.info("Purged {} completed attachment operations", deleted);
+        }
+    }
+
+    /**
+     * @return the client view of an operation, without the quote
+     */
+    public static AttachmentOperationDTO toDto(AttachmentOperationEntity entity) {
+        return AttachmentOperationDTO.builder()
+            .operationId(entity.getOperationId())
+            .quoteId(entity.getQuoteId())
+            .documentId(entity.getDocumentId())
+            .status(entity.getStatus())
+            .attempts(entity.getAttempts())
+            .message(entity.getMessage())
+            .createdAt(entity.getCreatedAt().toString())
+            .completedAt(entity.getCompletedAt() != null ? entity.getCompletedAt().toString() : null)
+            .build();
+    }
+}
@@ -0,0 +1,184 @@
+package com.dome.quotemanagement.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Ingests uploaded attachments: the multipart content is streamed once into a temp file, counting its size,
+ * checking the PDF magic bytes and computing its SHA-256 on the way, so an upload never holds more than a copy buffer on the heap and an
+ * invalid file is rejected without being read twice. The document uploader then reads the spooled file through a
+ * channel. Spooled files are deleted when the {@link SpooledAttachment} is closed.
+ */
+@Slf4j
+@Component
+public class AttachmentSpool {
+
+    public static final long MAX_SIZE_BYTES = 10L * 1024 * 1024;
+
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Value("${attachment.spool.dir:}")
+    private String spoolDir;
+
+    /**
+     * A validated attachment spooled to a temp file.
+     */
+    public static final class SpooledAttachment implements AutoCloseable {
+
+        private final Path path;
+        private final String fileName;
+        private final String contentType;
+        private final long size;
+        private final String sha256;
+
+        private SpooledAttachment(Path path, String fileName, String contentType, long size, String sha256) {
+            this.path = path;
+            this.fileName = fileName;
+            this.contentType = contentType;
+            this.size = size;
+            this.sha256 = sha256;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return the hex-encoded SHA-256 of the content
+         */
+        public String getSha256() {
+            return sha256;
+        }
+
+        /**
+         * @return a new channel reading the spooled content, to be closed by the caller
+         */
+        public FileChannel openChannel() throws IOException {
+            return FileChannel.open(path, StandardOpenOption.READ);
+        }
+
+        @Override
+        public void close() {
+            deleteQuietly(path);
+        }
+    }
+
+    /**
+     * Spool and validate an uploaded file.
+     * @param file the uploaded file
+     * @return the spooled attachment, to be closed once uploaded
+     * @throws IllegalArgumentException if the file is empty, too large or not a PDF
+     */
+    public SpooledAttachment spool(MultipartFile file) {
+        // Validate file type (only PDF allowed)
+        String contentType = file.getContentType();
+        if (!"application/pdf".equals(contentType)) {
+            throw new IllegalArgumentException("Only PDF files are allowed. Received: " + contentType);
+        }
+        // Reject a declared size over the limit before reading anything
+        if (file.getSize() > MAX_SIZE_BYTES) {
+            throw new IllegalArgumentException("File size exceeds maximum allowed size of 10MB");
+        }
+
+        MessageDigest digest = sha256Digest();
+        Path path = createSpoolFile();
+        try (InputStream in = file.getInputStream();
+             FileChannel out = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long size = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (size < PDF_MAGIC.length) {
+                    checkMagic(buffer, read, (int) size);
+                }
+                size += read;
+                // Validate file size (limit to 10MB) on the actual content
+                if (size > MAX_SIZE_BYTES) {
+                    throw new IllegalArgumentException("File size exceeds maximum allowed size of 10MB");
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    out.write(chunk);
+                }
+            }
+            if (size == 0) {
+                throw new IllegalArgumentException("File is empty");
+            }
+            if (size < PDF_MAGIC.length) {
+                throw new IllegalArgumentException("Only PDF files are allowed. The file content is not a PDF document");
+            }
+            log.debug("Spooled attachment '{}' ({} bytes) to {}", file.getOriginalFilename(), size, path);
+            return new SpooledAttachment(path, file.getOriginalFilename(), contentType, size,
+                    String.format("%064x", new BigInteger(1, digest.digest())));
+        } catch (IOException e) {
+            deleteQuietly(path);
+            throw new UncheckedIOException("Failed to read uploaded file: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            deleteQuietly(path);
+            throw e;
+        }
+    }
+
+    /**
+     * Check the bytes of a chunk that fall within the magic prefix, the chunk starting at the given offset.
+     */
+    private static void checkMagic(byte[] chunk, int length, int offset) {
+        int end = Math.min(PDF_MAGIC.length, offset + length);
+        if (!Arrays.equals(chunk, 0, end - offset, PDF_MAGIC, offset, end)) {
+            throw new IllegalArgumentException("Only PDF files are allowed. The file content is not a PDF document");
+        }
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Path createSpoolFile() {
+        try {
+            return spoolDir == null || spoolDir.isBlank()
+                    ? Files.createTempFile("attachment-", ".spool")
+                    : Files.createTempFile(Files.createDirectories(Paths.get(spoolDir)), "attachment-", ".spool");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create attachment spool file: " + e.getMessage(), e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled attachment {}: {}", path, e.getMessage());
+        }
+    }
+}
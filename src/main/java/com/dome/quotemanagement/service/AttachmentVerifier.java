@@ -0,0 +1,170 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.dto.AttachmentOperationDTO;
+import com.dome.quotemanagement.dto.tmforum.AttachmentRefOrValueDTO;
+import com.dome.quotemanagement.dto.tmforum.QuoteDTO;
+import com.dome.quotemanagement.dto.tmforum.QuoteItemDTO;
+import com.dome.quotemanagement.entity.AttachmentOperationEntity;
+import com.dome.quotemanagement.entity.DocumentDeletionEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Verifies that a document reference written by a PATCH is persisted on the quote, since TMForum may
+ * acknowledge the PATCH before its asynchronous processing completes.
+ *
+ * Background verifications are tracked as operations in {@link AttachmentOperationStore}, so they can be polled
+ * on any instance and resume after a restart. Due operations are claimed in batches off the request path and
+ * the quote is re-read (with conditional revalidation) with exponential backoff, until the reference shows up
+ * or the attempts run out. A verified upload releases the document it replaced; a failed one releases the new
+ * document, which no quote references.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AttachmentVerifier {
+
+    private final QuoteResponseCache quoteResponseCache;
+    private final AttachmentOperationStore operationStore;
+    private final DocumentCollector documentCollector;
+
+    @Value("${attachment.verification.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${attachment.verification.delay-ms:1000}")
+    private long baseDelayMs;
+
+    @Value("${attachment.verification.max-delay-ms:8000}")
+    private long maxDelayMs;
+
+    @Value("${attachment.verification.batch-size:10}")
+    private int batchSize;
+
+    /**
+     * @return whether an item of the quote has an attachment referencing the document
+     */
+    public static boolean hasDocumentReference(QuoteDTO quote, String documentId) {
+        if (quote == null || quote.getQuoteItem() == null) {
+            return false;
+        }
+        for (QuoteItemDTO quoteItem : quote.getQuoteItem()) {
+            if (quoteItem.getAttachment() != null) {
+                for (AttachmentRefOrValueDTO attachment : quoteItem.getAttachment()) {
+                    if (attachment.getContent() != null && attachment.getContent().equals(documentId)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Exponential backoff: the delay before a check, doubling from the base delay up to the maximum.
+     * @param attempt the check about to be made, from 1
+     */
+    public long delayBeforeAttemptMs(int attempt) {
+        return attempt <= 1 ? 0 : Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 2, 20));
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * The fixed spacing of the checks made on the request thread, which are not backed off so a synchronous
+     * upload waits at most (max-attempts - 1) times this delay.
+     */
+    public long getDelayMs() {
+        return baseDelayMs;
+    }
+
+    /**
+     * Start verifying in the background.
+     * @param quoteId the quote id
+     * @param documentId the document that must be referenced
+     * @param previousDocumentId the document the upload replaces, released once the reference is confirmed;
+     *                           null if none
+     * @return the pending operation
+     */
+    public AttachmentOperationDTO start(String quoteId, String documentId, String previousDocumentId) {
+        AttachmentOperationEntity operation = operationStore.create(quoteId, documentId, previousDocumentId,
+            MDC.get("correlationId"), Instant.now().plusMillis(baseDelayMs));
+        log.info("Verifying persistence of document {} on quote {} in the background, operation {}",
+            documentId, quoteId, operation.getOperationId());
+        return AttachmentOperationStore.toDto(operation);
+    }
+
+    /**
+     * @param operationId the operation id
+     * @return the operation, empty if unknown or purged
+     */
+    public Optional<AttachmentOperationDTO> find(String operationId) {
+        return operationStore.find(operationId).map(AttachmentOperationStore::toDto);
+    }
+
+    /**
+     * Run the due checks.
+     */
+    @Scheduled(fixedDelayString = "${attachment.verification.poll-ms:500}")
+    public void verifyDue() {
+        try {
+            List<AttachmentOperationEntity> due = operationStore.claimDue(batchSize);
+            for (AttachmentOperationEntity operation : due) {
+                check(operation);
+            }
+        } catch (OptimisticLockingFailureException e) {
+            log.debug("Attachment operations claimed concurrently by another instance, skipping this round");
+        } catch (Exception e) {
+            log.error("Error verifying attachment operations: {}", e.getMessage(), e);
+        }
+    }
+
+    private void check(AttachmentOperationEntity operation) {
+        if (operation.getCorrelationId() != null) {
+            MDC.put("correlationId", operation.getCorrelationId());
+        }
+        try {
+            String documentId = operation.getDocumentId();
+            int attempt = operation.getAttempts() + 1;
+            try {
+                if (hasDocumentReference(quoteResponseCache.revalidate(operation.getQuoteId()), documentId)) {
+                    log.info("Document reference confirmed as persisted on attempt {}: {}", attempt, documentId);
+                    operationStore.complete(operation.getOperationId(), AttachmentOperationDTO.STATUS_SUCCEEDED, attempt, null);
+                    if (operation.getPreviousDocumentId() != null && !operation.getPreviousDocumentId().equals(documentId)) {
+                        documentCollector.release(operation.getPreviousDocumentId(), operation.getQuoteId(),
+                            DocumentDeletionEntity.REASON_REPLACED);
+                    }
+                    return;
+                }
+                log.warn("Document reference not yet persisted, attempt {} of {}: {}", attempt, maxAttempts, documentId);
+            } catch (Exception e) {
+                log.error("Error during attachment persistence check attempt {}: {}", attempt, e.getMessage());
+            }
+            if (attempt >= maxAttempts) {
+                log.error("Document reference was not persisted after {} attempts for documentId: {}", attempt, documentId);
+                operationStore.complete(operation.getOperationId(), AttachmentOperationDTO.STATUS_FAILED, attempt,
+                    "Document reference was not persisted within timeout period. Please try again.");
+                // The quote does not reference the new upload, do not leave it orphaned in the Document API
+                if (!Objects.equals(documentId, operation.getPreviousDocumentId())) {
+                    documentCollector.release(documentId, operation.getQuoteId(), DocumentDeletionEntity.REASON_UNVERIFIED);
+                }
+                return;
+            }
+            operationStore.markRetry(operation.getOperationId(), attempt,
+                Instant.now().plusMillis(delayBeforeAttemptMs(attempt + 1)));
+        } finally {
+            MDC.remove("correlationId");
+        }
+    }
+}
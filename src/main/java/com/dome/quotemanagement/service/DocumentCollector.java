@@ -0,0 +1,230 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.dto.tmforum.AttachmentRefOrValueDTO;
+import com.dome.quotemanagement.dto.tmforum.QuoteDTO;
+import com.dome.quotemanagement.dto.tmforum.QuoteItemDTO;
+import com.dome.quotemanagement.entity.DocumentContentEntity;
+import com.dome.quotemanagement.entity.DocumentDeletionEntity;
+import com.dome.quotemanagement.repository.DocumentContentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Garbage collector of the documents this service uploads to the TMForum Document API.
+ *
+ * The deletions queued in {@link DocumentDeletionQueue} are run in batches off the request path, and retried
+ * with exponential backoff until they succeed or the attempts run out. A periodic reconciliation diffs the
+ * documents we created (recorded in document_content) against the documents referenced by the quotes of the
+ * read model, and queues those no quote references, e.g. uploads whose quote PATCH failed or quotes deleted
+ * since. Only documents older than a grace period are considered, so uploads still being attached are left
+ * alone. The reconciliation only trusts a read model whose last crawl is recent and saw every quote: it is
+ * skipped after a warm start without a crawl, and when the crawl stopped early or skipped oversized quotes, whose
+ * attachments would otherwise look orphaned. A queued document found referenced again is not deleted. With an
+ * in-memory datasource, document_content only knows the documents uploaded since the last start, so orphans of
+ * earlier runs are not found.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DocumentCollector {
+
+    private final DocumentDeletionQueue deletionQueue;
+    private final DocumentService documentService;
+    private final DocumentContentRepository documentContentRepository;
+    private final QuoteReadModel quoteReadModel;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${document.gc.batch-size:20}")
+    private int batchSize;
+
+    @Value("${document.gc.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${document.gc.retry-base-delay-ms:30000}")
+    private long retryBaseDelayMs;
+
+    @Value("${document.gc.retry-max-delay-ms:3600000}")
+    private long retryMaxDelayMs;
+
+    @Value("${document.gc.orphan-grace-minutes:60}")
+    private long orphanGraceMinutes;
+
+    @Value("${document.gc.reconcile-page-size:500}")
+    private int reconcilePageSize;
+
+    @Value("${quote.read-model.refresh-interval-ms:60000}")
+    private long readModelRefreshIntervalMs;
+
+    /**
+     * Delete a document no longer attached to a quote: queued for collection, or inline when the queue is
+     * disabled or unavailable.
+     * @param documentId the document id
+     * @param quoteId the quote the document was attached to, null if none
+     * @param reason why the document is deleted, one of the DocumentDeletionEntity reasons
+     */
+    public void release(String documentId, String quoteId, String reason) {
+        if (deletionQueue.isEnabled()) {
+            try {
+                deletionQueue.enqueue(documentId, quoteId, reason);
+                log.info("Queued {} document for deletion - quoteId: {}, documentId: {}", reason, quoteId, documentId);
+                return;
+            } catch (Exception e) {
+                log.warn("Failed to queue {} document for deletion, deleting it now - quoteId: {}, documentId: {}: {}",
+                        reason, quoteId, documentId, e.getMessage());
+            }
+        }
+        try {
+            documentService.deleteDocumentSpecification(documentId);
+            log.info("Deleted {} document - quoteId: {}, documentId: {}", reason, quoteId, documentId);
+        } catch (Exception e) {
+            log.warn("Failed to delete {} document - quoteId: {}, documentId: {}: {}",
+                    reason, quoteId, documentId, e.getMessage());
+        }
+    }
+
+    /**
+     * Run the due deletions.
+     */
+    @Scheduled(fixedDelayString = "${document.gc.poll-ms:10000}", initialDelayString = "${document.gc.poll-ms:10000}")
+    public void collect() {
+        if (!deletionQueue.isEnabled()) {
+            return;
+        }
+        try {
+            List<DocumentDeletionEntity> due = deletionQueue.claimDue(batchSize);
+            if (due.isEmpty()) {
+                return;
+            }
+            Set<String> referenced = quoteReadModel.isReady() ? referencedDocumentIds() : Set.of();
+            for (DocumentDeletionEntity deletion : due) {
+                delete(deletion, referenced);
+            }
+        } catch (OptimisticLockingFailureException e) {
+            log.debug("Document deletions claimed concurrently by another instance, skipping this round");
+        } catch (Exception e) {
+            log.error("Error collecting documents: {}", e.getMessage(), e);
+        }
+    }
+
+    private void delete(DocumentDeletionEntity deletion, Set<String> referenced) {
+        String documentId = deletion.getDocumentId();
+        if (referenced.contains(documentId)) {
+            log.info("Document {} queued for deletion ({}) is referenced by a quote, keeping it", documentId, deletion.getReason());
+            deletionQueue.remove(deletion.getId());
+            meterRegistry.counter("document.gc.deletions", "outcome", "kept").increment();
+            return;
+        }
+        try {
+            documentService.deleteDocumentSpecification(documentId);
+            deletionQueue.remove(deletion.getId());
+            log.info("Deleted {} document - quoteId: {}, documentId: {}", deletion.getReason(), deletion.getQuoteId(), documentId);
+            meterRegistry.counter("document.gc.deletions", "outcome", "deleted").increment();
+        } catch (Exception e) {
+            int attempts = deletion.getAttempts() + 1;
+            Duration retryDelay = attempts < maxAttempts ? retryDelay(attempts) : null;
+            deletionQueue.markFailed(deletion.getId(), attempts, e.getMessage(), retryDelay);
+            if (retryDelay != null) {
+                log.warn("Failed to delete document {} (attempt {} of {}), retrying in {}s: {}",
+                    documentId, attempts, maxAttempts, retryDelay.toSeconds(), e.getMessage());
+                meterRegistry.counter("document.gc.deletions", "outcome", "retried").increment();
+            } else {
+                log.error("Giving up deleting document {} after {} attempts: {}", documentId, attempts, e.getMessage());
+                meterRegistry.counter("document.gc.deletions", "outcome", "dead").increment();
+            }
+        }
+    }
+
+    private Duration retryDelay(int attempts) {
+        return Duration.ofMillis(Math.min(retryMaxDelayMs, retryBaseDelayMs << Math.min(attempts - 1, 20)));
+    }
+
+    /**
+     * Queue the documents we created that no quote references.
+     */
+    @Scheduled(fixedDelayString = "${document.gc.reconcile-interval-ms:3600000}",
+        initialDelayString = "${document.gc.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        if (!deletionQueue.isEnabled()) {
+            return;
+        }
+        if (!hasCompleteReadModel()) {
+            log.debug("Quote read model not reconciled by a recent complete crawl, skipping the document reconciliation");
+            return;
+        }
+        try {
+            Set<String> referenced = referencedDocumentIds();
+            Instant before = Instant.now().minus(Duration.ofMinutes(orphanGraceMinutes));
+            int orphans = 0;
+            String afterDocumentId = "";
+            List<DocumentContentEntity> page;
+            do {
+                page = documentContentRepository.findByCreatedAtBeforeAndDocumentIdGreaterThanOrderByDocumentIdAsc(
+                    before, afterDocumentId, PageRequest.of(0, reconcilePageSize));
+                for (DocumentContentEntity document : page) {
+                    afterDocumentId = document.getDocumentId();
+                    if (referenced.contains(document.getDocumentId())) {
+                        continue;
+                    }
+                    try {
+                        if (deletionQueue.enqueue(document.getDocumentId(), null, DocumentDeletionEntity.REASON_ORPHAN)) {
+                            orphans++;
+                        }
+                    } catch (DataIntegrityViolationException e) {
+                        log.debug("Orphaned document {} queued concurrently by another instance", document.getDocumentId());
+                    }
+                }
+            } while (page.size() == reconcilePageSize);
+            if (orphans > 0) {
+                log.info("Queued {} orphaned documents for deletion", orphans);
+            }
+        } catch (Exception e) {
+            log.error("Error reconciling documents with quotes: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return true if the read model was reconciled, within two refresh intervals, by a crawl that saw every quote
+     */
+    private boolean hasCompleteReadModel() {
+        Instant lastRefresh = quoteReadModel.getLastRefresh();
+        return quoteReadModel.hasCrawled()
+            && quoteReadModel.isLastCrawlComplete()
+            && lastRefresh != null
+            && lastRefresh.isAfter(Instant.now().minusMillis(2 * readModelRefreshIntervalMs));
+    }
+
+    /**
+     * @return the contents of all quote attachments, which include the referenced document ids
+     */
+    private Set<String> referencedDocumentIds() {
+        Set<String> referenced = new HashSet<>();
+        for (QuoteDTO quote : quoteReadModel.findAll()) {
+            if (quote.getQuoteItem() == null) {
+                continue;
+            }
+            for (QuoteItemDTO quoteItem : quote.getQuoteItem()) {
+                if (quoteItem.getAttachment() != null) {
+                    for (AttachmentRefOrValueDTO attachment : quoteItem.getAttachment()) {
+                        if (attachment.getContent() != null) {
+                            referenced.add(attachment.getContent());
+                        }
+                    }
+                }
+            }
+        }
+        return referenced;
+    }
+}
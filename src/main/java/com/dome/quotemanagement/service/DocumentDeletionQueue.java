@@ -0,0 +1,126 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.entity.DocumentDeletionEntity;
+import com.dome.quotemanagement.repository.DocumentDeletionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Durable queue of documents to delete from the TMForum Document API, stored in the configured JPA datasource
+ * next to the notification outbox. Queued deletions survive a restart unless the datasource is an in-memory
+ * database.
+ *
+ * Documents are queued instead of being deleted inline, so attachment requests do not wait on the DELETE and a
+ * failed deletion is retried instead of leaving the document orphaned. Queueing the same document twice stores
+ * it once. The deletions themselves are run by {@link DocumentCollector}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DocumentDeletionQueue {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final DocumentDeletionRepository deletionRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${document.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${document.gc.lease-ms:60000}")
+    private long leaseMs;
+
+    @PostConstruct
+    void init() {
+        if (enabled) {
+            Gauge.builder("document.deletion.pending", deletionRepository,
+                    repository -> repository.countByStatus(DocumentDeletionEntity.STATUS_PENDING))
+                .description("Documents waiting to be deleted from the Document API")
+                .register(meterRegistry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a document for deletion, due right away.
+     * @param documentId the document id
+     * @param quoteId the quote the document was attached to, null if none
+     * @param reason why the document is deleted, one of the DocumentDeletionEntity reasons
+     * @return false if the document was already queued
+     */
+    @Transactional
+    public boolean enqueue(String documentId, String quoteId, String reason) {
+        if (deletionRepository.existsByDocumentId(documentId)) {
+            return false;
+        }
+        Instant now = Instant.now();
+        DocumentDeletionEntity entity = new DocumentDeletionEntity();
+        entity.setDocumentId(documentId);
+        entity.setQuoteId(quoteId);
+        entity.setReason(reason);
+        entity.setStatus(DocumentDeletionEntity.STATUS_PENDING);
+        entity.setNextAttemptAt(now);
+        entity.setCreatedAt(now);
+        deletionRepository.save(entity);
+        return true;
+    }
+
+    /**
+     * Lease the oldest due rows. Fails with an optimistic locking exception when another instance claimed
+     * some of the rows concurrently; nothing is claimed then.
+     * @param limit the maximum number of rows
+     * @return the claimed rows
+     */
+    @Transactional
+    public List<DocumentDeletionEntity> claimDue(int limit) {
+        Instant now = Instant.now();
+        List<DocumentDeletionEntity> due = deletionRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+            DocumentDeletionEntity.STATUS_PENDING, now, PageRequest.of(0, limit));
+        for (DocumentDeletionEntity entity : due) {
+            entity.setNextAttemptAt(now.plusMillis(leaseMs));
+        }
+        return deletionRepository.saveAllAndFlush(due);
+    }
+
+    /**
+     * Remove a row, once its document is deleted or no longer to be deleted.
+     */
+    @Transactional
+    public void remove(long id) {
+        deletionRepository.findById(id).ifPresent(deletionRepository::delete);
+    }
+
+    /**
+     * Record a failed deletion attempt.
+     * @param id the row id
+     * @param attempts the attempts made so far
+     * @param error the failure
+     * @param retryDelay the delay before the next attempt, null to give up
+     */
+    @Transactional
+    public void markFailed(long id, int attempts, String error, Duration retryDelay) {
+        deletionRepository.findById(id).ifPresent(entity -> {
+            entity.setAttempts(attempts);
+            entity.setLastError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            if (retryDelay == null) {
+                entity.setStatus(DocumentDeletionEntity.STATUS_DEAD);
+            } else {
+                entity.setNextAttemptAt(Instant.now().plus(retryDelay));
+            }
+        });
+    }
+}
@@ -1,17 +1,23 @@
 package com.dome.quotemanagement.service;
 
 import com.dome.quotemanagement.dto.tmforum.DocumentSpecificationDTO;
-import org.springframework.web.multipart.MultipartFile;
 
 public interface DocumentService {
 
     /**
-     * Uploads a file to the TMForum Document API and returns the created document specification.
+     * Uploads a spooled file to the TMForum Document API and returns the created document specification.
      */
-    DocumentSpecificationDTO createDocumentSpecification(MultipartFile file, String description);
+    DocumentSpecificationDTO createDocumentSpecification(AttachmentSpool.SpooledAttachment file, String description);
+
+    /**
+     * Tells whether an uploaded document has the same content as a spooled file, as far as the content
+     * hashes recorded at upload time show (documents uploaded before they were recorded never match).
+     */
+    boolean hasSameContent(String documentId, AttachmentSpool.SpooledAttachment file);
 
     /**
      * Deletes a document specification from the TMForum Document API (including S3 storage).
+     * A document that does not exist anymore counts as deleted.
      */
     void deleteDocumentSpecification(String documentId);
 }
@@ -4,19 +4,49 @@ import com.dome.quotemanagement.config.AppConfig;
 import com.dome.quotemanagement.dto.tmforum.DocumentAttachmentDTO;
 import com.dome.quotemanagement.dto.tmforum.DocumentSpecificationCreateRequestDTO;
 import com.dome.quotemanagement.dto.tmforum.DocumentSpecificationDTO;
+import com.dome.quotemanagement.entity.DocumentContentEntity;
+import com.dome.quotemanagement.repository.DocumentContentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
-
+import java.util.UUID;
+
+/**
+ * Client of the TMForum Document API.
+ *
+ * Uploads are streamed: the JSON envelope is serialised around a random placeholder, and the spooled file is
+ * Base64-encoded from its channel straight into the request body, with the exact Content-Length computed up front.
+ * An upload thus holds a small copy buffer instead of the file, its Base64 String and the serialised body. Should
+ * the placeholder not occur exactly once in the envelope, the body is serialised with the content in memory
+ * instead. Uploads go through a RestTemplate without interceptors on the shared connection pool, since
+ * interceptors buffer the whole body (and the logging interceptor would log the Base64 content).
+ *
+ * The SHA-256 and size of each uploaded file are recorded against its document id, and dropped when the document
+ * is deleted, so a re-upload of the content a quote already references can be detected.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -24,13 +54,26 @@ public class DocumentServiceImpl implements DocumentService {
 
     private final RestTemplate restTemplate;
     private final AppConfig appConfig;
+    private final ObjectMapper objectMapper;
+    private final HttpComponentsClientHttpRequestFactory tmforumRequestFactory;
+    private final DocumentContentRepository documentContentRepository;
+
+    private RestTemplate uploadRestTemplate;
+
+    @PostConstruct
+    void init() {
+        uploadRestTemplate = new RestTemplate(restTemplate.getMessageConverters());
+        uploadRestTemplate.setRequestFactory(tmforumRequestFactory);
+        uploadRestTemplate.setErrorHandler(restTemplate.getErrorHandler());
+    }
 
     @Override
-    public DocumentSpecificationDTO createDocumentSpecification(MultipartFile file, String description) {
+    public DocumentSpecificationDTO createDocumentSpecification(AttachmentSpool.SpooledAttachment file, String description) {
         try {
             String url = appConfig.getTmforumDocumentApiBaseUrl().trim() + appConfig.getTmforumDocumentEndpoint();
-            String fileName = file.getOriginalFilename();
-            String base64Content = Base64.getEncoder().encodeToString(file.getBytes());
+            String fileName = file.getFileName();
+            // Random per upload, so a name or description cannot contain it
+            String contentPlaceholder = "__document_content_" + UUID.randomUUID() + "__";
 
             DocumentSpecificationCreateRequestDTO requestBody = DocumentSpecificationCreateRequestDTO.builder()
                     .name(fileName)
@@ -43,27 +86,65 @@ public class DocumentServiceImpl implements DocumentService {
                             DocumentAttachmentDTO.builder()
                                     .name(fileName)
                                     .mimeType(file.getContentType())
-                                    .content(base64Content)
+                                    .content(contentPlaceholder)
                                     .build()
                     ))
                     .build();
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Accept", "application/json");
-
-            HttpEntity<DocumentSpecificationCreateRequestDTO> request = new HttpEntity<>(requestBody, headers);
+            // Split the envelope around the content, which is written in between while reading the file
+            String envelope = objectMapper.writeValueAsString(requestBody);
+            int contentIndex = envelope.indexOf(contentPlaceholder);
+            boolean streamed = contentIndex >= 0 && contentIndex == envelope.lastIndexOf(contentPlaceholder);
+            byte[] prefix;
+            byte[] suffix;
+            long base64Length;
+            if (streamed) {
+                prefix = envelope.substring(0, contentIndex).getBytes(StandardCharsets.UTF_8);
+                suffix = envelope.substring(contentIndex + contentPlaceholder.length()).getBytes(StandardCharsets.UTF_8);
+                base64Length = 4 * ((file.getSize() + 2) / 3);
+            } else {
+                log.warn("Content placeholder not found exactly once in the envelope, buffering the upload of {}", fileName);
+                try (InputStream in = Channels.newInputStream(file.openChannel())) {
+                    requestBody.getAttachment().get(0).setContent(Base64.getEncoder().encodeToString(in.readAllBytes()));
+                }
+                prefix = objectMapper.writeValueAsBytes(requestBody);
+                suffix = new byte[0];
+                base64Length = 0;
+            }
 
             log.info("Uploading document to TMForum Document API - url: {}, file: {}, size: {} bytes",
                     url, fileName, file.getSize());
 
-            DocumentSpecificationDTO response = restTemplate.postForObject(url, request, DocumentSpecificationDTO.class);
+            String correlationId = MDC.get("correlationId");
+            RequestCallback requestCallback = request -> {
+                HttpHeaders headers = request.getHeaders();
+                headers.setContentType(MediaType.APPLICATION_JSON);
+                headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+                headers.setContentLength(prefix.length + base64Length + suffix.length);
+                if (correlationId != null) {
+                    headers.set("X-Correlation-ID", correlationId);
+                }
+                ((StreamingHttpOutputMessage) request).setBody(body -> {
+                    body.write(prefix);
+                    if (streamed) {
+                        try (InputStream in = Channels.newInputStream(file.openChannel());
+                             OutputStream base64 = Base64.getEncoder().wrap(StreamUtils.nonClosing(body))) {
+                            in.transferTo(base64);
+                        }
+                    }
+                    body.write(suffix);
+                });
+            };
+            ResponseEntity<DocumentSpecificationDTO> responseEntity = uploadRestTemplate.execute(url, HttpMethod.POST,
+                    requestCallback, uploadRestTemplate.responseEntityExtractor(DocumentSpecificationDTO.class));
+            DocumentSpecificationDTO response = responseEntity != null ? responseEntity.getBody() : null;
 
             if (response == null || response.getId() == null || response.getId().isBlank()) {
                 throw new RuntimeException("Document API did not return a valid document id");
             }
 
             log.info("Document uploaded successfully - documentId: {}, file: {}", response.getId(), fileName);
+            recordContent(response.getId(), file);
             return response;
 
         } catch (Exception e) {
@@ -72,6 +153,41 @@ public class DocumentServiceImpl implements DocumentService {
         }
     }
 
+    @Override
+    public boolean hasSameContent(String documentId, AttachmentSpool.SpooledAttachment file) {
+        try {
+            return documentContentRepository.findById(documentId)
+                    .map(content -> content.getSizeBytes() == file.getSize() && content.getSha256().equals(file.getSha256()))
+                    .orElse(false);
+        } catch (Exception e) {
+            log.warn("Failed to look up the content hash of document {}: {}", documentId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void recordContent(String documentId, AttachmentSpool.SpooledAttachment file) {
+        try {
+            DocumentContentEntity content = new DocumentContentEntity();
+            content.setDocumentId(documentId);
+            content.setSha256(file.getSha256());
+            content.setSizeBytes(file.getSize());
+            content.setCreatedAt(Instant.now());
+            documentContentRepository.save(content);
+        } catch (Exception e) {
+            log.warn("Failed to record the content hash of document {}: {}", documentId, e.getMessage());
+        }
+    }
+
+    private void forgetContent(String documentId) {
+        try {
+            if (documentContentRepository.existsById(documentId)) {
+                documentContentRepository.deleteById(documentId);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to drop the content hash of document {}: {}", documentId, e.getMessage());
+        }
+    }
+
     @Override
     public void deleteDocumentSpecification(String documentId) {
         try {
@@ -89,7 +205,12 @@ public class DocumentServiceImpl implements DocumentService {
             restTemplate.exchange(url, HttpMethod.DELETE, request, Void.class);
 
             log.info("Document deleted successfully - documentId: {}", documentId);
+            forgetContent(documentId);
 
+        } catch (HttpClientErrorException.NotFound e) {
+            // Already deleted, e.g. by an earlier attempt whose response was lost
+            log.info("Document already deleted - documentId: {}", documentId);
+            forgetContent(documentId);
         } catch (Exception e) {
             log.error("Failed to delete document from TMForum Document API - documentId: {}: {}",
                     documentId, e.getMessage(), e);
@@ -0,0 +1,634 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.config.AppConfig;
+import com.dome.quotemanagement.dto.NotificationBatchRequestDTO;
+import com.dome.quotemanagement.dto.NotificationRequestDTO;
+import com.dome.quotemanagement.entity.NotificationOutboxEntity;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers notifications to the charging backend off the request thread.
+ *
+ * Notifications about a quote event are first appended to the {@link NotificationOutbox}, then queued for
+ * an immediate attempt, or left to the relay while the outbox coalesces them. The outcome is recorded in the
+ * outbox; a failed delivery is retried from there with exponential backoff and full jitter, up to a maximum
+ * number of attempts, by a relay that drains due rows in batches. Every delivery carries an idempotency key so
+ * the backend can drop duplicates of an at-least-once delivery. Notifications without an outbox row (outbox
+ * disabled or not writable) are retried in memory.
+ *
+ * Notifications wait in a bounded queue drained by a few worker threads. A worker collects queued notifications
+ * into a batch until it reaches the batch size or the linger time passes, and sends the batch with a single
+ * request to the batch route; if the backend has no batch route, notifications are sent one by one and the
+ * route is tried again later. When the queue is full the overflow policy applies: caller-runs delivers on the
+ * submitting thread (back-pressure), defer leaves the notification to the relay. Queue depth, age of the
+ * oldest entry, wait time, batch sizes and delivery outcomes are exported as notification.* metrics.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationDispatcher {
+
+    private final RestTemplate restTemplate;
+    private final AppConfig appConfig;
+    private final MeterRegistry meterRegistry;
+    private final NotificationOutbox notificationOutbox;
+
+    @Value("${notification.api.base-url}")
+    private volatile String notificationBaseUrl;
+
+    @Value("${notification.dispatch.async:true}")
+    private boolean async;
+
+    @Value("${notification.dispatch.workers:4}")
+    private int workers;
+
+    @Value("${notification.dispatch.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${notification.dispatch.overflow-policy:caller-runs}")
+    private String overflowPolicy;
+
+    @Value("${notification.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${notification.dispatch.retry-base-delay-ms:500}")
+    private long retryBaseDelayMs;
+
+    @Value("${notification.dispatch.retry-max-delay-ms:30000}")
+    private long retryMaxDelayMs;
+
+    @Value("${notification.dispatch.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    @Value("${notification.dispatch.batch-size:50}")
+    private int batchSize;
+
+    @Value("${notification.dispatch.batch-linger-ms:200}")
+    private long batchLingerMs;
+
+    @Value("${notification.outbox.batch-size:100}")
+    private int relayBatchSize;
+
+    /** Responses meaning the backend does not offer the batch route. */
+    private static final Set<Integer> BATCH_ROUTE_MISSING = Set.of(404, 405, 501);
+
+    /** Attempts to append a notification that conflicted with a concurrent update of the row it merges into. */
+    private static final int MAX_APPEND_ATTEMPTS = 3;
+
+    /** How long to send one by one before trying the batch route again. */
+    private static final Duration BATCH_ROUTE_RECHECK = Duration.ofMinutes(10);
+
+    /**
+     * A queued notification with the MDC of the submitting request, so its logs keep the correlation ID.
+     * @param outboxId the outbox row of the notification, null if it has none
+     */
+    private record Delivery(NotificationRequestDTO notification, String idempotencyKey, Long outboxId,
+                            Map<String, String> context, int attempt, long enqueuedAtNanos) {
+
+        Delivery nextAttempt() {
+            return new Delivery(notification, idempotencyKey, outboxId, context, attempt + 1, System.nanoTime());
+        }
+    }
+
+    private BlockingQueue<Delivery> queue;
+    private ScheduledExecutorService retryScheduler;
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    private Timer waitTimer;
+    private DistributionSummary batchSizes;
+
+    /** Until then, the backend is assumed to have no batch route. */
+    private volatile long batchRouteMissingUntilNanos = System.nanoTime();
+
+    @PostConstruct
+    void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("notification-retry-"));
+        waitTimer = Timer.builder("notification.queue.wait")
+            .description("Time notifications waited in the queue before a delivery attempt")
+            .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("notification.batch.size")
+            .description("Notifications sent per batch request")
+            .register(meterRegistry);
+        Gauge.builder("notification.queue.depth", this, dispatcher -> dispatcher.queue.size())
+            .description("Notifications waiting for delivery")
+            .register(meterRegistry);
+        Gauge.builder("notification.queue.age.seconds", this, NotificationDispatcher::oldestAgeSeconds)
+            .description("Time the oldest queued notification has been waiting")
+            .register(meterRegistry);
+
+        running = true;
+        if (async) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("notification-");
+            threadFactory.setDaemon(true);
+            for (int i = 0; i < workers; i++) {
+                Thread worker = threadFactory.newThread(this::work);
+                workerThreads.add(worker);
+                worker.start();
+            }
+        }
+    }
+
+    /**
+     * Queue a notification that is not tied to a quote event, without an outbox row.
+     * Never throws: notification failures must not affect the main flow.
+     * @param notification the notification to send
+     */
+    public void dispatch(NotificationRequestDTO notification) {
+        submit(new Delivery(notification, UUID.randomUUID().toString(), null, MDC.getCopyOfContextMap(), 1, System.nanoTime()));
+    }
+
+    /**
+     * Store a notification about a quote event in the outbox and queue it for delivery. An event already
+     * stored is not sent again, and a notification merged into a pending one is not sent on its own. Never throws: notification failures must not affect the main flow.
+     * @param notification the notification to send
+     * @param quoteId the id of the quote the notification is about
+     * @param event the event of the quote, unique per quote
+     */
+    public void dispatch(NotificationRequestDTO notification, String quoteId, String event) {
+        String key = NotificationOutbox.idempotencyKey(quoteId, event);
+        Long outboxId = null;
+        if (notificationOutbox.isEnabled()) {
+            try {
+                NotificationOutbox.Appended appended = append(notification, quoteId, event);
+                switch (appended.outcome()) {
+                    case DUPLICATE:
+                        log.info("Notification {} is already in the outbox, not sending it again", key);
+                        count("duplicate");
+                        return;
+                    case COALESCED:
+                        log.info("Notification {} merged into a pending notification to recipient '{}'", key, notification.getRecipient());
+                        count("coalesced");
+                        return;
+                    default:
+                        if (!appended.dueNow()) {
+                            // Delivered by the relay once the coalescing window has passed
+                            return;
+                        }
+                        outboxId = appended.id();
+                }
+            } catch (Exception e) {
+                log.error("Could not store notification {} in the outbox, delivering it without: {}", key, e.getMessage());
+            }
+        }
+        submit(new Delivery(notification, key, outboxId, MDC.getCopyOfContextMap(), 1, System.nanoTime()));
+    }
+
+    /**
+     * Append to the outbox. A concurrent append of the same event violates the idempotency key and counts as a
+     * duplicate; a merge that lost the race for the pending row it updated is retried against the new state.
+     */
+    private NotificationOutbox.Appended append(NotificationRequestDTO notification, String quoteId, String event) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return notificationOutbox.append(notification, quoteId, event);
+            } catch (DataIntegrityViolationException e) {
+                if (!notificationOutbox.isStored(quoteId, event)) {
+                    throw e;
+                }
+                log.debug("Notification {} stored concurrently", NotificationOutbox.idempotencyKey(quoteId, event));
+                return new NotificationOutbox.Appended(NotificationOutbox.AppendOutcome.DUPLICATE, null, false);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_APPEND_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Pending notification updated concurrently while appending {}, retrying",
+                    NotificationOutbox.idempotencyKey(quoteId, event));
+            }
+        }
+    }
+
+    private void submit(Delivery delivery) {
+        if (!async || !running) {
+            if (delivery.outboxId() != null) {
+                deliver(delivery);
+            } else {
+                deliverWithRetries(delivery);
+            }
+            return;
+        }
+        if (queue.offer(delivery)) {
+            return;
+        }
+        if ("defer".equalsIgnoreCase(overflowPolicy) && delivery.outboxId() != null) {
+            log.warn("Notification queue full ({} entries), leaving notification {} to the outbox relay",
+                queueCapacity, delivery.idempotencyKey());
+            count("deferred");
+        } else {
+            log.warn("Notification queue full ({} entries), delivering on the calling thread", queueCapacity);
+            count("caller-runs");
+            deliver(delivery);
+        }
+    }
+
+    /**
+     * Relay: queue the due outbox rows, i.e. notifications whose coalescing window has passed, failed deliveries
+     * waiting for a retry and deliveries whose lease expired, in batches bounded by the free queue capacity.
+     */
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-ms:1000}", initialDelayString = "${notification.outbox.poll-ms:1000}")
+    public void relayOutbox() {
+        if (!running || !notificationOutbox.isEnabled()) {
+            return;
+        }
+        try {
+            int limit = async ? Math.min(relayBatchSize, queue.remainingCapacity()) : relayBatchSize;
+            if (limit == 0) {
+                return;
+            }
+            List<NotificationOutboxEntity> claimed = notificationOutbox.claimDue(limit);
+            if (claimed.isEmpty()) {
+                return;
+            }
+            log.info("Relaying {} notifications from the outbox", claimed.size());
+            for (NotificationOutboxEntity entity : claimed) {
+                NotificationRequestDTO notification = NotificationRequestDTO.builder()
+                    .sender(entity.getSender())
+                    .recipient(entity.getRecipient())
+                    .subject(entity.getSubject())
+                    .message(entity.getMessage())
+                    .build();
+                Delivery delivery = new Delivery(notification, entity.getIdempotencyKey(), entity.getId(),
+                    null, entity.getAttempts() + 1, System.nanoTime());
+                if (!async) {
+                    deliver(delivery);
+                } else if (!queue.offer(delivery)) {
+                    // Filled up since the claim; the row is picked up again once its lease expires
+                    break;
+                }
+            }
+        } catch (OptimisticLockingFailureException e) {
+            log.debug("Outbox rows claimed concurrently by another instance, skipping this round");
+        } catch (Exception e) {
+            log.error("Error relaying notifications from the outbox: {}", e.getMessage(), e);
+        }
+    }
+
+    private void work() {
+        List<Delivery> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Delivery delivery = queue.poll(1, TimeUnit.SECONDS);
+                if (delivery != null) {
+                    batch.add(delivery);
+                    fillBatch(batch);
+                    deliverBatch(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Unexpected error in notification worker: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Add queued deliveries to a batch until it is full or the linger time has passed.
+     */
+    private void fillBatch(List<Delivery> batch) throws InterruptedException {
+        if (batchSize <= 1 || !isBatchRouteAvailable()) {
+            return;
+        }
+        queue.drainTo(batch, batchSize - batch.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchLingerMs);
+        while (batch.size() < batchSize && running) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            Delivery next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    /**
+     * Deliver a batch with a single request to the batch route, or one by one when the batch holds a single
+     * notification or the backend has no batch route.
+     */
+    private void deliverBatch(List<Delivery> batch) {
+        if (batch.size() > 1 && isBatchRouteAvailable()) {
+            batchSizes.record(batch.size());
+            batch.forEach(this::recordWait);
+            String error = null;
+            try {
+                postBatch(batch);
+                log.info("Successfully sent a batch of {} notifications", batch.size());
+            } catch (HttpStatusCodeException e) {
+                if (BATCH_ROUTE_MISSING.contains(e.getStatusCode().value())) {
+                    log.warn("Notification backend has no batch route ({}), sending notifications one by one for the next {} minutes",
+                        e.getStatusCode().value(), BATCH_ROUTE_RECHECK.toMinutes());
+                    batchRouteMissingUntilNanos = System.nanoTime() + BATCH_ROUTE_RECHECK.toNanos();
+                    batch.forEach(this::send);
+                    return;
+                }
+                error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            } catch (Exception e) {
+                error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            }
+            if (error != null) {
+                log.error("Failed to send a batch of {} notifications: {}", batch.size(), error);
+            }
+            for (Delivery delivery : batch) {
+                if (error == null) {
+                    count("success");
+                }
+                complete(delivery, error);
+            }
+            return;
+        }
+        batch.forEach(this::deliver);
+    }
+
+    private boolean isBatchRouteAvailable() {
+        return System.nanoTime() - batchRouteMissingUntilNanos >= 0;
+    }
+
+    /**
+     * Time left until the batch route is tried again, zero or negative when it is tried right away.
+     */
+    Duration batchRouteRecheckIn() {
+        return Duration.ofNanos(batchRouteMissingUntilNanos - System.nanoTime());
+    }
+
+    /**
+     * Forget that the backend has no batch route, so the next batch tries it again.
+     */
+    void resetBatchRoute() {
+        batchRouteMissingUntilNanos = System.nanoTime();
+    }
+
+    /**
+     * Send the notifications to another backend, e.g. one whose port is only known once it started.
+     */
+    void setNotificationBaseUrl(String notificationBaseUrl) {
+        this.notificationBaseUrl = notificationBaseUrl;
+    }
+
+    /**
+     * Make one delivery attempt and record its outcome.
+     */
+    private void deliver(Delivery delivery) {
+        recordWait(delivery);
+        send(delivery);
+    }
+
+    private void send(Delivery delivery) {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        restoreContext(delivery.context());
+        try {
+            complete(delivery, attempt(delivery));
+        } finally {
+            restoreContext(previous);
+        }
+    }
+
+    private void recordWait(Delivery delivery) {
+        waitTimer.record(System.nanoTime() - delivery.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the outcome of a delivery attempt, scheduling a retry on failure.
+     * @param error null on success, the failure otherwise
+     */
+    private void complete(Delivery delivery, String error) {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        restoreContext(delivery.context());
+        try {
+            if (error == null) {
+                recordSent(delivery);
+                return;
+            }
+            boolean giveUp = delivery.attempt() >= maxAttempts;
+            if (giveUp) {
+                log.error("Giving up notification {} for sender: '{}', recipient: '{}' after {} attempts",
+                    delivery.idempotencyKey(), delivery.notification().getSender(),
+                    delivery.notification().getRecipient(), delivery.attempt());
+                count("failure");
+            } else {
+                count("retry");
+            }
+            if (delivery.outboxId() != null) {
+                recordFailed(delivery, error, giveUp ? null : Duration.ofMillis(backoffMs(delivery.attempt())));
+            } else if (!giveUp) {
+                retryInMemory(delivery);
+            }
+        } finally {
+            restoreContext(previous);
+        }
+    }
+
+    private void recordSent(Delivery delivery) {
+        if (delivery.outboxId() == null) {
+            return;
+        }
+        try {
+            notificationOutbox.markSent(delivery.outboxId());
+        } catch (Exception e) {
+            // The row becomes due again when its lease expires; the idempotency key lets the backend drop the duplicate
+            log.error("Could not record delivery of notification {} in the outbox: {}", delivery.idempotencyKey(), e.getMessage());
+        }
+    }
+
+    private void recordFailed(Delivery delivery, String error, Duration retryDelay) {
+        if (retryDelay != null) {
+            log.info("Retrying notification {} in {} ms (attempt {} of {})",
+                delivery.idempotencyKey(), retryDelay.toMillis(), delivery.attempt() + 1, maxAttempts);
+        }
+        try {
+            notificationOutbox.markFailed(delivery.outboxId(), delivery.attempt(), error, retryDelay);
+        } catch (Exception e) {
+            log.error("Could not record failed delivery of notification {} in the outbox: {}", delivery.idempotencyKey(), e.getMessage());
+        }
+    }
+
+    private void retryInMemory(Delivery delivery) {
+        long delayMs = backoffMs(delivery.attempt());
+        log.info("Retrying notification for sender: '{}', recipient: '{}' in {} ms (attempt {} of {})",
+            delivery.notification().getSender(), delivery.notification().getRecipient(),
+            delayMs, delivery.attempt() + 1, maxAttempts);
+        if (!running) {
+            log.error("Cannot retry notification for recipient '{}': dispatcher is shutting down",
+                delivery.notification().getRecipient());
+            count("failure");
+            return;
+        }
+        try {
+            retryScheduler.schedule(() -> requeue(delivery.nextAttempt()), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.error("Cannot retry notification for recipient '{}': dispatcher is shutting down",
+                delivery.notification().getRecipient());
+            count("failure");
+        }
+    }
+
+    /**
+     * Synchronous delivery of a notification without an outbox row, used when the dispatcher is disabled
+     * or shutting down.
+     */
+    private void deliverWithRetries(Delivery delivery) {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        try {
+            for (Delivery current = delivery; ; current = current.nextAttempt()) {
+                if (attempt(current) == null) {
+                    return;
+                }
+                if (current.attempt() >= maxAttempts || !running) {
+                    count("failure");
+                    return;
+                }
+                count("retry");
+                Thread.sleep(backoffMs(current.attempt()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            count("failure");
+        } finally {
+            restoreContext(previous);
+        }
+    }
+
+    private void requeue(Delivery delivery) {
+        if (!queue.offer(delivery)) {
+            // The queue only refuses retries under sustained overload; deliver here rather than lose them
+            deliver(delivery);
+        }
+    }
+
+    /**
+     * POST the notification to the charging backend.
+     * @return null on success, the failure otherwise
+     */
+    private String attempt(Delivery delivery) {
+        NotificationRequestDTO notification = delivery.notification();
+        String url = notificationBaseUrl + appConfig.getNotificationEndpoint();
+
+        log.info("Sending notification to URL: {}", url);
+        log.debug("Notification payload: {}", notification);
+
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set("Idempotency-Key", delivery.idempotencyKey());
+
+            HttpEntity<NotificationRequestDTO> request = new HttpEntity<>(notification, headers);
+
+            restTemplate.postForObject(url, request, Void.class);
+
+            log.info("Successfully sent notification for seller: '{}', customer: '{}'",
+                    notification.getSender(), notification.getRecipient());
+            count("success");
+            return null;
+        } catch (Exception e) {
+            log.error("Failed to send notification (attempt {} of {}): {}", delivery.attempt(), maxAttempts, e.getMessage());
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    /**
+     * POST a batch of notifications to the batch route of the charging backend.
+     */
+    private void postBatch(List<Delivery> batch) {
+        String url = notificationBaseUrl + appConfig.getNotificationBatchEndpoint();
+        log.info("Sending {} notifications to URL: {}", batch.size(), url);
+
+        List<NotificationBatchRequestDTO.Item> items = new ArrayList<>(batch.size());
+        for (Delivery delivery : batch) {
+            NotificationRequestDTO notification = delivery.notification();
+            items.add(NotificationBatchRequestDTO.Item.builder()
+                .idempotencyKey(delivery.idempotencyKey())
+                .sender(notification.getSender())
+                .recipient(notification.getRecipient())
+                .subject(notification.getSubject())
+                .message(notification.getMessage())
+                .build());
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<NotificationBatchRequestDTO> request = new HttpEntity<>(
+            NotificationBatchRequestDTO.builder().notifications(items).build(), headers);
+
+        restTemplate.postForObject(url, request, Void.class);
+    }
+
+    /**
+     * Exponential backoff with full jitter: a random delay between 0 and min(max, base * 2^(attempt - 1)).
+     */
+    private long backoffMs(int attempt) {
+        long ceiling = Math.min(retryMaxDelayMs, retryBaseDelayMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private double oldestAgeSeconds() {
+        Delivery oldest = queue.peek();
+        return oldest == null ? 0 : (System.nanoTime() - oldest.enqueuedAtNanos()) / 1e9;
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("notification.dispatch", "outcome", outcome).increment();
+    }
+
+    private static void restoreContext(Map<String, String> context) {
+        if (context != null) {
+            MDC.setContextMap(context);
+        } else {
+            MDC.clear();
+        }
+    }
+
+    /**
+     * Stop accepting work and give the workers some time to drain the queue. Pending in-memory retries are
+     * dropped; notifications with an outbox row are delivered by the relay after a restart.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        retryScheduler.shutdownNow();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        for (Thread worker : workerThreads) {
+            worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Shutting down with {} undelivered notifications", queue.size());
+        }
+    }
+}
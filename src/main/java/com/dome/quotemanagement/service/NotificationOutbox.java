@@ -0,0 +1,242 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.dto.NotificationRequestDTO;
+import com.dome.quotemanagement.entity.NotificationOutboxEntity;
+import com.dome.quotemanagement.repository.NotificationOutboxRepository;
+import com.dome.quotemanagement.util.EmailConstants;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Durable outbox of notifications, stored in the configured JPA datasource next to the quote read model.
+ *
+ * A notification is appended right after the quote mutation that triggers it succeeded, under an idempotency
+ * key derived from the quote id and the event, so appending the same event twice stores it once. Rows stay
+ * pending until delivered. Within a short coalescing window, notifications to the same recipient about the
+ * same quote are merged into one, and identical ones dropped, so a burst of notes produces one email. A row
+ * claimed for delivery is leased, and becomes due again if the lease expires without the delivery being
+ * recorded, e.g. because the instance stopped. Delivery is therefore at least once.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationOutbox {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${notification.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${notification.outbox.coalesce-window-ms:5000}")
+    private long coalesceWindowMs;
+
+    @Value("${notification.outbox.retention-hours:72}")
+    private long retentionHours;
+
+    @PostConstruct
+    void init() {
+        if (enabled) {
+            Gauge.builder("notification.outbox.pending", outboxRepository,
+                    repository -> repository.countByStatus(NotificationOutboxEntity.STATUS_PENDING))
+                .description("Notifications in the outbox not delivered yet")
+                .register(meterRegistry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the idempotency key of an event of a quote
+     */
+    public static String idempotencyKey(String quoteId, String event) {
+        return quoteId + ":" + event;
+    }
+
+    /**
+     * @return whether a notification for the event of the quote is stored
+     */
+    @Transactional(readOnly = true)
+    public boolean isStored(String quoteId, String event) {
+        return outboxRepository.existsByIdempotencyKey(idempotencyKey(quoteId, event));
+    }
+
+    /**
+     * What happened to an appended notification.
+     */
+    public enum AppendOutcome {
+        /** Stored as a new row. */
+        STORED,
+        /** Merged into a pending row for the same recipient and quote. */
+        COALESCED,
+        /** Already stored under the same idempotency key, or identical to a pending notification. */
+        DUPLICATE
+    }
+
+    /**
+     * @param id the id of the new row, null unless stored
+     * @param dueNow whether the new row should be delivered right away rather than by the relay
+     */
+    public record Appended(AppendOutcome outcome, Long id, boolean dueNow) {}
+
+    /**
+     * Store a notification. With a coalescing window the new row is delivered by the relay once the window
+     * has passed, and notifications with the same subject to the same recipient about the same quote arriving
+     * in the meantime are merged into it; otherwise the row is leased for an immediate delivery attempt.
+     * @param notification the notification
+     * @param quoteId the id of the quote the notification is about
+     * @param event the event of the quote, unique per quote
+     * @return the outcome
+     * @throws org.springframework.dao.DataIntegrityViolationException if the same event was stored concurrently
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the pending row to merge into was
+     *         updated concurrently; nothing is stored then
+     */
+    @Transactional
+    public Appended append(NotificationRequestDTO notification, String quoteId, String event) {
+        String key = idempotencyKey(quoteId, event);
+        if (outboxRepository.existsByIdempotencyKey(key)) {
+            return new Appended(AppendOutcome.DUPLICATE, null, false);
+        }
+        Instant now = Instant.now();
+        if (coalesceWindowMs > 0 && notification.getRecipient() != null) {
+            List<NotificationOutboxEntity> open = outboxRepository.findByStatusAndRecipientAndQuoteIdAndCoalescingUntilAfterOrderByIdAsc(
+                NotificationOutboxEntity.STATUS_PENDING, notification.getRecipient(), quoteId, now);
+            for (NotificationOutboxEntity entity : open) {
+                if (!Objects.equals(entity.getSubject(), notification.getSubject())) {
+                    continue;
+                }
+                if (includesMessage(entity.getMessage(), notification.getMessage())) {
+                    return new Appended(AppendOutcome.DUPLICATE, null, false);
+                }
+                entity.setMessage(mergeMessages(entity.getMessage(), notification.getMessage()));
+                entity.setCoalescedCount(entity.getCoalescedCount() + 1);
+                return new Appended(AppendOutcome.COALESCED, null, false);
+            }
+        }
+        NotificationOutboxEntity entity = new NotificationOutboxEntity();
+        entity.setIdempotencyKey(key);
+        entity.setQuoteId(quoteId);
+        entity.setEvent(event);
+        entity.setSender(notification.getSender());
+        entity.setRecipient(notification.getRecipient());
+        entity.setSubject(notification.getSubject());
+        entity.setMessage(notification.getMessage());
+        entity.setStatus(NotificationOutboxEntity.STATUS_PENDING);
+        if (coalesceWindowMs > 0) {
+            entity.setCoalescingUntil(now.plusMillis(coalesceWindowMs));
+            entity.setNextAttemptAt(entity.getCoalescingUntil());
+        } else {
+            entity.setNextAttemptAt(now.plusMillis(leaseMs));
+        }
+        entity.setCreatedAt(now);
+        return new Appended(AppendOutcome.STORED, outboxRepository.save(entity).getId(), coalesceWindowMs <= 0);
+    }
+
+    /**
+     * Join two notification bodies into one, keeping a single trailing footer.
+     */
+    private static String mergeMessages(String first, String second) {
+        return withoutFooter(first) + EmailConstants.SEPARATOR_MERGED_MESSAGES + (second != null ? second : "");
+    }
+
+    /**
+     * @return whether a possibly merged notification body already contains the given body
+     */
+    private static boolean includesMessage(String merged, String message) {
+        return Objects.equals(merged, message) || merged != null && message != null && merged.contains(withoutFooter(message));
+    }
+
+    private static String withoutFooter(String message) {
+        String body = message != null ? message : "";
+        return body.endsWith(EmailConstants.FOOTER_DO_NOT_REPLY)
+            ? body.substring(0, body.length() - EmailConstants.FOOTER_DO_NOT_REPLY.length())
+            : body;
+    }
+
+    /**
+     * Lease the oldest due rows for delivery. Fails with an optimistic locking exception when another
+     * instance claimed some of the rows concurrently; nothing is claimed then.
+     * @param limit the maximum number of rows
+     * @return the claimed rows
+     */
+    @Transactional
+    public List<NotificationOutboxEntity> claimDue(int limit) {
+        Instant now = Instant.now();
+        List<NotificationOutboxEntity> due = outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+            NotificationOutboxEntity.STATUS_PENDING, now, PageRequest.of(0, limit));
+        for (NotificationOutboxEntity entity : due) {
+            entity.setNextAttemptAt(now.plusMillis(leaseMs));
+            entity.setCoalescingUntil(null);
+        }
+        return outboxRepository.saveAllAndFlush(due);
+    }
+
+    /**
+     * Record a successful delivery.
+     */
+    @Transactional
+    public void markSent(long id) {
+        outboxRepository.findById(id).ifPresent(entity -> {
+            entity.setStatus(NotificationOutboxEntity.STATUS_SENT);
+            entity.setSentAt(Instant.now());
+            entity.setLastError(null);
+        });
+    }
+
+    /**
+     * Record a failed delivery attempt.
+     * @param id the row id
+     * @param attempts the attempts made so far
+     * @param error the failure
+     * @param retryDelay the delay before the next attempt, null to give up
+     */
+    @Transactional
+    public void markFailed(long id, int attempts, String error, Duration retryDelay) {
+        outboxRepository.findById(id).ifPresent(entity -> {
+            entity.setAttempts(attempts);
+            entity.setLastError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            if (retryDelay == null) {
+                entity.setStatus(NotificationOutboxEntity.STATUS_DEAD);
+            } else {
+                entity.setNextAttemptAt(Instant.now().plus(retryDelay));
+            }
+        });
+    }
+
+    /**
+     * Delete delivered rows older than the retention period. Dead rows are kept for inspection.
+     */
+    @Scheduled(fixedDelayString = "${notification.outbox.purge-interval-ms:3600000}",
+        initialDelayString = "${notification.outbox.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeSent() {
+        if (!enabled) {
+            return;
+        }
+        int deleted = outboxRepository.deleteSentBefore(NotificationOutboxEntity.STATUS_SENT,
+            Instant.now().minus(Duration.ofHours(retentionHours)));
+        if (deleted > 0) {
+            log.info("Purged {} delivered notifications from the outbox", deleted);
+        }
+    }
+}
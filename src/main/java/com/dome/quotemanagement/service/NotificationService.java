@@ -4,4 +4,13 @@ import com.dome.quotemanagement.dto.NotificationRequestDTO;
 
 public interface NotificationService {
     void sendNotification(NotificationRequestDTO notification);
-} 
\ No newline at end of file
+
+    /**
+     * Send a notification about an event of a quote. The notification is stored in the outbox first,
+     * and sent at most once per quote and event.
+     * @param notification the notification to send
+     * @param quoteId the id of the quote
+     * @param event the event, unique per quote (e.g. "created", "note-3")
+     */
+    void sendNotification(NotificationRequestDTO notification, String quoteId, String event);
+}
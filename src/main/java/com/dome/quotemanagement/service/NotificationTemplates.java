@@ -0,0 +1,212 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.enums.QuoteStatus;
+import com.dome.quotemanagement.util.EmailConstants;
+import com.dome.quotemanagement.util.NotificationTemplate;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Notification templates, compiled once at startup: the general ones keyed by {@link Template}, and the
+ * status-specific quote and tender ones keyed by {@link QuoteStatus}.
+ *
+ * The defaults are the English texts of {@link EmailConstants}. A locale variant is read from
+ * notification-templates_{language tag}.properties on the classpath, where keys are template names
+ * (NEW_NOTE_ADDED), status.{status} for status bodies, tender.{status} for tender status bodies and
+ * description.{status} for status descriptions, e.g. status.APPROVED; templates missing there fall back to the defaults. The locale used is
+ * notification.template.locale.
+ */
+@Slf4j
+@Component
+public class NotificationTemplates {
+
+    /**
+     * Templates not tied to a status.
+     */
+    public enum Template {
+        NEW_QUOTE_CREATED_SUBJECT(EmailConstants.SUBJECT_NEW_QUOTE_CREATED),
+        NEW_QUOTE_CREATED(EmailConstants.BODY_NEW_QUOTE_CREATED),
+        NEW_ATTACHMENT_UPLOADED_SUBJECT(EmailConstants.SUBJECT_NEW_ATTACHMENT_UPLOADED),
+        NEW_ATTACHMENT_UPLOADED(EmailConstants.BODY_NEW_ATTACHMENT_UPLOADED),
+        NEW_NOTE_ADDED_SUBJECT(EmailConstants.SUBJECT_NEW_NOTE_ADDED),
+        NEW_NOTE_ADDED(EmailConstants.BODY_NEW_NOTE_ADDED),
+        QUOTE_STATUS_UPDATE_SUBJECT(EmailConstants.SUBJECT_QUOTE_STATUS_UPDATE),
+        QUOTE_STATUS_UPDATE(EmailConstants.BODY_QUOTE_STATUS_UPDATE),
+        QUOTE_STATUS_UPDATED_SUBJECT(EmailConstants.SUBJECT_QUOTE_STATUS_UPDATED),
+        QUOTE_STATUS_UPDATED_CUSTOMER(EmailConstants.BODY_QUOTE_STATUS_UPDATED_CUSTOMER),
+        QUOTE_STATUS_UPDATED_SELLER(EmailConstants.BODY_QUOTE_STATUS_UPDATED_SELLER),
+        STATUS_DESCRIPTION_OTHER(EmailConstants.DESCRIPTION_STATUS_OTHER),
+        TENDER_STATUS_UPDATE_SUBJECT(EmailConstants.SUBJECT_TENDER_STATUS_UPDATE),
+        TENDER_STATUS_UPDATED(EmailConstants.BODY_TENDER_STATUS_UPDATED),
+        QUOTE_EXPIRED_SUBJECT(EmailConstants.SUBJECT_QUOTE_EXPIRED),
+        QUOTE_EXPIRED(EmailConstants.BODY_QUOTE_EXPIRED);
+
+        private final String pattern;
+
+        Template(String pattern) {
+            this.pattern = pattern;
+        }
+    }
+
+    /**
+     * The templates of one locale.
+     */
+    private record TemplateSet(Map<Template, NotificationTemplate> templates,
+                               Map<QuoteStatus, NotificationTemplate> statusBodies,
+                               Map<QuoteStatus, NotificationTemplate> tenderBodies,
+                               Map<QuoteStatus, String> statusDescriptions) {}
+
+    private static final Map<QuoteStatus, String> DEFAULT_STATUS_BODIES = Map.of(
+        QuoteStatus.IN_PROGRESS, EmailConstants.BODY_STATUS_IN_PROGRESS,
+        QuoteStatus.APPROVED, EmailConstants.BODY_STATUS_APPROVED,
+        QuoteStatus.ACCEPTED, EmailConstants.BODY_STATUS_ACCEPTED,
+        QuoteStatus.CANCELLED, EmailConstants.BODY_STATUS_CANCELED
+    );
+
+    private static final Map<QuoteStatus, String> DEFAULT_TENDER_BODIES = Map.of(
+        QuoteStatus.APPROVED, EmailConstants.BODY_TENDER_STATUS_APPROVED,
+        QuoteStatus.ACCEPTED, EmailConstants.BODY_TENDER_STATUS_ACCEPTED
+    );
+
+    private static final Map<QuoteStatus, String> DEFAULT_STATUS_DESCRIPTIONS = Map.of(
+        QuoteStatus.IN_PROGRESS, EmailConstants.DESCRIPTION_STATUS_IN_PROGRESS,
+        QuoteStatus.PENDING, EmailConstants.DESCRIPTION_STATUS_PENDING,
+        QuoteStatus.APPROVED, EmailConstants.DESCRIPTION_STATUS_APPROVED,
+        QuoteStatus.CANCELLED, EmailConstants.DESCRIPTION_STATUS_CANCELLED,
+        QuoteStatus.ACCEPTED, EmailConstants.DESCRIPTION_STATUS_ACCEPTED,
+        QuoteStatus.REJECTED, EmailConstants.DESCRIPTION_STATUS_REJECTED
+    );
+
+    @Value("${notification.template.locale:en}")
+    private String localeTag;
+
+    private Locale defaultLocale;
+    private TemplateSet defaults;
+    private final Map<Locale, TemplateSet> variants = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        defaults = compile(new Properties(), null);
+        defaultLocale = Locale.forLanguageTag(localeTag);
+        // Load the configured variant eagerly, so a broken template fails at startup
+        forLocale(defaultLocale);
+    }
+
+    /**
+     * Render a template in the configured locale.
+     * @param template the template
+     * @param args the arguments, in template order
+     * @return the rendered text
+     */
+    public String render(Template template, Object... args) {
+        return forLocale(defaultLocale).templates().get(template).render(args);
+    }
+
+    /**
+     * Render the status-specific body in the configured locale.
+     * @param status the status
+     * @param args the arguments, in template order
+     * @return the rendered text, null if there is no template for the status
+     */
+    public String renderStatus(QuoteStatus status, Object... args) {
+        NotificationTemplate template = status != null ? forLocale(defaultLocale).statusBodies().get(status) : null;
+        return template != null ? template.render(args) : null;
+    }
+
+    /**
+     * Render the body of a coordinator tender automatically moved to a status, in the configured locale.
+     * @param status the status
+     * @param args the arguments, in template order
+     * @return the rendered text, null if there is no template for the status
+     */
+    public String renderTenderStatus(QuoteStatus status, Object... args) {
+        NotificationTemplate template = status != null ? forLocale(defaultLocale).tenderBodies().get(status) : null;
+        return template != null ? template.render(args) : null;
+    }
+
+    /**
+     * @param status the status, null if unknown
+     * @return a description of the status in the configured locale
+     */
+    public String describeStatus(QuoteStatus status) {
+        TemplateSet set = forLocale(defaultLocale);
+        String description = status != null ? set.statusDescriptions().get(status) : null;
+        return description != null ? description : set.templates().get(Template.STATUS_DESCRIPTION_OTHER).render();
+    }
+
+    private TemplateSet forLocale(Locale locale) {
+        return variants.computeIfAbsent(locale, this::load);
+    }
+
+    /**
+     * Compile the variant of a locale, falling back to the language and then to the defaults.
+     */
+    private TemplateSet load(Locale locale) {
+        for (String tag : new String[] {locale.toLanguageTag(), locale.getLanguage()}) {
+            ClassPathResource resource = new ClassPathResource("notification-templates_" + tag + ".properties");
+            if (!tag.isEmpty() && resource.exists()) {
+                try {
+                    log.info("Loading notification templates for locale '{}' from {}", tag, resource.getFilename());
+                    return compile(PropertiesLoaderUtils.loadProperties(resource), defaults);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Cannot read notification templates " + resource.getFilename(), e);
+                }
+            }
+        }
+        return defaults;
+    }
+
+    private static TemplateSet compile(Properties overrides, TemplateSet fallback) {
+        Map<Template, NotificationTemplate> templates = new EnumMap<>(Template.class);
+        for (Template template : Template.values()) {
+            String pattern = overrides.getProperty(template.name());
+            templates.put(template, pattern != null ? NotificationTemplate.compile(pattern)
+                : fallback != null ? fallback.templates().get(template) : NotificationTemplate.compile(template.pattern));
+        }
+        Map<QuoteStatus, NotificationTemplate> statusBodies = compileByStatus(overrides, "status.",
+            fallback != null ? fallback.statusBodies() : null, DEFAULT_STATUS_BODIES);
+        Map<QuoteStatus, NotificationTemplate> tenderBodies = compileByStatus(overrides, "tender.",
+            fallback != null ? fallback.tenderBodies() : null, DEFAULT_TENDER_BODIES);
+        Map<QuoteStatus, String> statusDescriptions = new EnumMap<>(QuoteStatus.class);
+        for (QuoteStatus status : QuoteStatus.values()) {
+            String description = overrides.getProperty("description." + status.name(),
+                fallback != null ? fallback.statusDescriptions().get(status) : DEFAULT_STATUS_DESCRIPTIONS.get(status));
+            if (description != null) {
+                statusDescriptions.put(status, description);
+            }
+        }
+        return new TemplateSet(templates, statusBodies, tenderBodies, statusDescriptions);
+    }
+
+    /**
+     * Compile the status templates of a key prefix, taken from the overrides, else from the fallback set, else
+     * (when compiling the defaults) from the default patterns.
+     */
+    private static Map<QuoteStatus, NotificationTemplate> compileByStatus(Properties overrides, String prefix,
+                                                                          Map<QuoteStatus, NotificationTemplate> fallback,
+                                                                          Map<QuoteStatus, String> defaults) {
+        Map<QuoteStatus, NotificationTemplate> templates = new EnumMap<>(QuoteStatus.class);
+        for (QuoteStatus status : QuoteStatus.values()) {
+            String pattern = overrides.getProperty(prefix + status.name());
+            if (pattern != null) {
+                templates.put(status, NotificationTemplate.compile(pattern));
+            } else if (fallback != null && fallback.containsKey(status)) {
+                templates.put(status, fallback.get(status));
+            } else if (fallback == null && defaults.containsKey(status)) {
+                templates.put(status, NotificationTemplate.compile(defaults.get(status)));
+            }
+        }
+        return templates;
+    }
+}
@@ -0,0 +1,293 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.config.AppConfig;
+import com.dome.quotemanagement.exception.QuoteManagementException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+
+/**
+ * Resolves organizations from the Organization API (tmf-api/party/v4/organization), caching the results
+ * since they almost never change: display names by organization id, and organization ids by
+ * organizationIdentification.identificationId. The id of the configured marketplace DID is loaded at startup.
+ *
+ * Entries are refreshed in the background once older than the refresh interval, so callers keep getting
+ * the cached value while it is reloaded, and expire when not reloaded within the TTL. A failed lookup is
+ * not cached. Cache statistics are exposed as cache.* metrics with cache=organization-trading-name and
+ * cache=organization-identification.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrganizationResolver {
+
+    static final String CACHE_NAME = "organization-trading-name";
+    static final String IDENTIFICATION_CACHE_NAME = "organization-identification";
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final AppConfig appConfig;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${organization.cache.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${organization.cache.refresh-minutes:60}")
+    private long refreshMinutes;
+
+    @Value("${organization.cache.max-size:10000}")
+    private long maxSize;
+
+    private LoadingCache<String, Optional<String>> tradingNames;
+
+    private LoadingCache<String, String> organizationIdsByIdentification;
+
+    @PostConstruct
+    void init() {
+        tradingNames = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .refreshAfterWrite(Duration.ofMinutes(refreshMinutes))
+            .recordStats()
+            .build(this::fetchTradingName);
+        CaffeineCacheMetrics.monitor(meterRegistry, tradingNames, CACHE_NAME);
+        organizationIdsByIdentification = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .refreshAfterWrite(Duration.ofMinutes(refreshMinutes))
+            .recordStats()
+            .build(this::searchOrganizationId);
+        CaffeineCacheMetrics.monitor(meterRegistry, organizationIdsByIdentification, IDENTIFICATION_CACHE_NAME);
+    }
+
+    /**
+     * Resolve the organization id of the configured DID once the application is up, so the first
+     * quote creation does not pay for the search. A failure is only logged; the next lookup retries.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarm() {
+        String didIdentifier = appConfig.getDidIdentifier();
+        if (didIdentifier == null || didIdentifier.trim().isEmpty()) {
+            return;
+        }
+        try {
+            String organizationId = resolveIdByIdentificationId(didIdentifier);
+            log.info("Pre-warmed organization id '{}' for configured DID '{}'", organizationId, didIdentifier);
+        } catch (Exception e) {
+            log.warn("Could not pre-warm organization id for configured DID '{}': {}", didIdentifier, e.getMessage());
+        }
+    }
+
+    /**
+     * Resolve organization tradingName, falling back to externalReference.name if tradingName is not present.
+     * @param organizationId the organization ID to look up
+     * @return Optional with tradingName (or fallback name), empty on failure (e.g. so notification can still be sent)
+     */
+    public Optional<String> resolveTradingName(String organizationId) {
+        if (organizationId == null || organizationId.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return tradingNames.get(organizationId.trim());
+        } catch (Exception e) {
+            log.warn("Could not resolve organization tradingName for id {}: {}", organizationId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Resolve organization ID by searching for an organization that has
+     * organizationIdentification.identificationId matching the provided identifier.
+     * @param identificationId the identification ID to search for (e.g., "did:elsi:VATIT-04323210874")
+     * @return the organization ID if found
+     * @throws QuoteManagementException if the organization is not found or cannot be resolved
+     */
+    public String resolveIdByIdentificationId(String identificationId) {
+        if (identificationId == null || identificationId.trim().isEmpty()) {
+            throw new QuoteManagementException(
+                "Identification ID cannot be null or empty",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+        return organizationIdsByIdentification.get(identificationId.trim());
+    }
+
+    /**
+     * Drop the cached name of an organization, so the next lookup reads it from the Organization API.
+     * @param organizationId the organization ID
+     */
+    public void invalidate(String organizationId) {
+        tradingNames.invalidate(organizationId.trim());
+        log.info("Invalidated cached tradingName of organization {}", organizationId);
+    }
+
+    /**
+     * Drop every cached organization name and identification.
+     */
+    public void invalidateAll() {
+        tradingNames.invalidateAll();
+        organizationIdsByIdentification.invalidateAll();
+        log.info("Invalidated all cached organizations");
+    }
+
+    /**
+     * Cache loader. Throws on transport or parsing failures so that they are not cached
+     * and a failed refresh keeps the previous name.
+     */
+    private Optional<String> fetchTradingName(String organizationId) throws Exception {
+        String base = appConfig.getTmforumPartyApiBaseUrl().trim();
+        String orgEndpoint = appConfig.getTmforumOrganizationEndpoint();
+        String url = (base + orgEndpoint).replaceAll("/+$", "") + "/" + organizationId;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        HttpEntity<?> request = new HttpEntity<>(headers);
+        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, request, String.class);
+        String body = response.getBody();
+        if (body == null || body.isEmpty()) {
+            return Optional.empty();
+        }
+        JsonNode root = objectMapper.readTree(body);
+        if (root.hasNonNull("tradingName")) {
+            String tradingName = root.get("tradingName").asText();
+            if (tradingName != null && !tradingName.trim().isEmpty()) {
+                log.debug("Resolved organization tradingName '{}' for id {}", tradingName, organizationId);
+                return Optional.of(tradingName.trim());
+            }
+        }
+        JsonNode externalReferences = root.get("externalReference");
+        if (externalReferences != null && externalReferences.isArray()) {
+            for (JsonNode extRef : externalReferences) {
+                if (extRef.hasNonNull("name")) {
+                    String name = extRef.get("name").asText();
+                    if (name != null && !name.trim().isEmpty()) {
+                        log.debug("Using externalReference.name '{}' as fallback for organization id {}", name, organizationId);
+                        return Optional.of(name.trim());
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Cache loader searching the organization whose organizationIdentification.identificationId matches.
+     * Every failure is thrown as a QuoteManagementException, which Caffeine propagates as is and does not cache.
+     */
+    private String searchOrganizationId(String identificationId) {
+        try {
+            String base = appConfig.getTmforumPartyApiBaseUrl().trim();
+            String orgEndpoint = appConfig.getTmforumOrganizationEndpoint();
+            // Build URL with query parameter to filter by identificationId
+            String url = UriComponentsBuilder.fromHttpUrl(base + orgEndpoint)
+                .queryParam("organizationIdentification.identificationId", identificationId)
+                .build(true)
+                .toUriString();
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+            HttpEntity<?> request = new HttpEntity<>(headers);
+
+            log.debug("Calling Organization API to find organization with identificationId: {}", identificationId);
+            log.debug("Organization API URL: {}", url);
+            ResponseEntity<String> response = restTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                request,
+                String.class
+            );
+
+            String body = response.getBody();
+            if (body == null || body.isEmpty()) {
+                throw new QuoteManagementException(
+                    "Empty Organization API response when searching for identificationId: " + identificationId,
+                    HttpStatus.NOT_FOUND
+                );
+            }
+
+            JsonNode root = objectMapper.readTree(body);
+            
+            // Handle both array response and single object response
+            JsonNode organizations;
+            if (root.isArray()) {
+                organizations = root;
+            } else if (root.has("organization") && root.get("organization").isArray()) {
+                organizations = root.get("organization");
+            } else {
+                // Single organization object
+                organizations = objectMapper.createArrayNode().add(root);
+            }
+
+            if (organizations != null && organizations.isArray()) {
+                for (JsonNode org : organizations) {
+                    // Check organizationIdentification array
+                    JsonNode orgIdentifications = org.get("organizationIdentification");
+                    if (orgIdentifications != null && orgIdentifications.isArray()) {
+                        for (JsonNode orgId : orgIdentifications) {
+                            if (orgId.hasNonNull("identificationId")) {
+                                String orgIdentificationId = orgId.get("identificationId").asText();
+                                if (identificationId.trim().equals(orgIdentificationId.trim())) {
+                                    // Found matching organization
+                                    if (org.hasNonNull("id")) {
+                                        String orgIdValue = org.get("id").asText();
+                                        log.info("Found organization with id '{}' matching identificationId '{}'", 
+                                            orgIdValue, identificationId);
+                                        return orgIdValue.trim();
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+
+            throw new QuoteManagementException(
+                "Organization not found with identificationId: " + identificationId,
+                HttpStatus.NOT_FOUND
+            );
+        } catch (QuoteManagementException e) {
+            throw e; // Re-throw our custom exceptions
+        } catch (org.springframework.web.client.HttpClientErrorException e) {
+            // Handle 404 from API specifically
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                throw new QuoteManagementException(
+                    "Organization API endpoint not found or organization not found with identificationId: " + identificationId,
+                    HttpStatus.NOT_FOUND,
+                    e
+                );
+            }
+            throw new QuoteManagementException(
+                "Failed to resolve buyer operator from Organization API with identificationId " + identificationId + ": " + e.getMessage(),
+                HttpStatus.INTERNAL_SERVER_ERROR,
+                e
+            );
+        } catch (Exception e) {
+            throw new QuoteManagementException(
+                "Failed to resolve buyer operator from Organization API with identificationId " + identificationId + ": " + e.getMessage(),
+                HttpStatus.INTERNAL_SERVER_ERROR,
+                e
+            );
+        }
+    }
+}
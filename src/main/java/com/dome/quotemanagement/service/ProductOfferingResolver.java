@@ -0,0 +1,216 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.config.AppConfig;
+import com.dome.quotemanagement.enums.QuoteRole;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves ProductOfferings (tmf-api/productCatalogManagement/v4/productOffering/{id}) into the few fields
+ * quote creation needs: the name and the Seller and SellerOperator related parties.
+ *
+ * Each offering is fetched and parsed once, then cached for the TTL. An offering that does not exist (404)
+ * is cached as absent for a shorter TTL; other failures are not cached. Concurrent lookups of an offering
+ * being loaded wait for that single fetch. Cache statistics are exposed as cache.* metrics with
+ * cache=product-offering.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductOfferingResolver {
+
+    static final String CACHE_NAME = "product-offering";
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final AppConfig appConfig;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${product-offering.cache.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${product-offering.cache.negative-ttl-minutes:2}")
+    private long negativeTtlMinutes;
+
+    @Value("${product-offering.cache.max-size:5000}")
+    private long maxSize;
+
+    /**
+     * A related party of a ProductOffering, with all of id, href and name present.
+     */
+    public record PartyRef(String id, String href, String name) {}
+
+    /**
+     * The parts of a ProductOffering used by quote creation and notifications.
+     * @param name the offering name, null if missing
+     * @param seller the Seller related party, null if missing or incomplete
+     * @param sellerOperator the SellerOperator related party, null if missing or incomplete
+     */
+    public record ProductOfferingInfo(String name, PartyRef seller, PartyRef sellerOperator) {}
+
+    private LoadingCache<String, Optional<ProductOfferingInfo>> offerings;
+
+    @PostConstruct
+    void init() {
+        long ttlNanos = TimeUnit.MINUTES.toNanos(ttlMinutes);
+        long negativeTtlNanos = TimeUnit.MINUTES.toNanos(negativeTtlMinutes);
+        offerings = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new Expiry<String, Optional<ProductOfferingInfo>>() {
+                @Override
+                public long expireAfterCreate(String key, Optional<ProductOfferingInfo> value, long currentTime) {
+                    return value.isPresent() ? ttlNanos : negativeTtlNanos;
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, Optional<ProductOfferingInfo> value, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, value, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String key, Optional<ProductOfferingInfo> value, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build(this::fetchProductOffering);
+        CaffeineCacheMetrics.monitor(meterRegistry, offerings, CACHE_NAME);
+    }
+
+    /**
+     * @param productOfferingId the ProductOffering ID
+     * @return the offering, empty if it does not exist or could not be fetched
+     */
+    public Optional<ProductOfferingInfo> resolve(String productOfferingId) {
+        if (productOfferingId == null || productOfferingId.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return offerings.get(productOfferingId.trim());
+        } catch (Exception e) {
+            log.error("Cannot resolve ProductOffering '{}': {} - {}",
+                productOfferingId, e.getClass().getSimpleName(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param productOfferingId the ProductOffering ID
+     * @return the offering name if found
+     */
+    public Optional<String> resolveName(String productOfferingId) {
+        return resolve(productOfferingId).map(ProductOfferingInfo::name);
+    }
+
+    /**
+     * Drop a cached offering, so the next lookup reads it from the ProductOffering API.
+     * @param productOfferingId the ProductOffering ID
+     */
+    public void invalidate(String productOfferingId) {
+        offerings.invalidate(productOfferingId.trim());
+        log.info("Invalidated cached ProductOffering {}", productOfferingId);
+    }
+
+    /**
+     * Drop every cached offering.
+     */
+    public void invalidateAll() {
+        offerings.invalidateAll();
+        log.info("Invalidated all cached ProductOfferings");
+    }
+
+    /**
+     * Cache loader. A 404 yields an empty result, which is cached; other failures throw and are not cached.
+     */
+    private Optional<ProductOfferingInfo> fetchProductOffering(String productOfferingId) throws Exception {
+        String base = appConfig.getTmforumProductCatalogApiBaseUrl().trim();
+        String poEndpoint = appConfig.getTmforumProductCatalogManagementEndpoint();
+        String url = (base + poEndpoint).replaceAll("/+$", "") + "/" + productOfferingId;
+
+        log.debug("Calling ProductOffering API: {}", url);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        HttpEntity<?> request = new HttpEntity<>(headers);
+
+        ResponseEntity<String> response;
+        try {
+            response = restTemplate.exchange(url, HttpMethod.GET, request, String.class);
+        } catch (HttpClientErrorException.NotFound e) {
+            log.error("Cannot resolve ProductOffering '{}': not found", productOfferingId);
+            return Optional.empty();
+        }
+
+        String body = response.getBody();
+        if (body == null || body.isEmpty()) {
+            throw new IllegalStateException("Empty ProductOffering response");
+        }
+
+        JsonNode root = objectMapper.readTree(body);
+        String name = root.hasNonNull("name") && !root.get("name").asText().trim().isEmpty()
+            ? root.get("name").asText().trim()
+            : null;
+        JsonNode relatedParties = root.get("relatedParty");
+        if (relatedParties == null || !relatedParties.isArray()) {
+            log.error("ProductOffering '{}' does not have a relatedParty array", productOfferingId);
+            return Optional.of(new ProductOfferingInfo(name, null, null));
+        }
+        return Optional.of(new ProductOfferingInfo(name,
+            findParty(productOfferingId, relatedParties, QuoteRole.SELLER),
+            findParty(productOfferingId, relatedParties, QuoteRole.SELLER_OPERATOR)));
+    }
+
+    /**
+     * The first relatedParty with the given role decides: it is returned only if id, href and name are all present.
+     */
+    private PartyRef findParty(String productOfferingId, JsonNode relatedParties, String role) {
+        for (JsonNode rp : relatedParties) {
+            String partyRole = rp.hasNonNull("role") ? rp.get("role").asText() : null;
+            if (partyRole != null && QuoteRole.equalsIgnoreCase(partyRole, role)) {
+                String id = rp.hasNonNull("id") ? rp.get("id").asText() : null;
+                String href = rp.hasNonNull("href") ? rp.get("href").asText() : null;
+                String name = rp.hasNonNull("name") ? rp.get("name").asText() : null;
+
+                // Validate that all three attributes are present and not empty
+                if (id == null || id.trim().isEmpty()) {
+                    log.error("ProductOffering '{}' has {} relatedParty but 'id' is missing or empty", productOfferingId, role);
+                    return null;
+                }
+                if (href == null || href.trim().isEmpty()) {
+                    log.error("ProductOffering '{}' has {} relatedParty but 'href' is missing or empty (id: {})", productOfferingId, role, id);
+                    return null;
+                }
+                if (name == null || name.trim().isEmpty()) {
+                    log.error("ProductOffering '{}' has {} relatedParty but 'name' is missing or empty (id: {}, href: {})", productOfferingId, role, id, href);
+                    return null;
+                }
+
+                log.debug("Resolved {} from ProductOffering '{}': id={}, href={}, name={}", role, productOfferingId, id, href, name);
+                return new PartyRef(id.trim(), href.trim(), name.trim());
+            }
+        }
+        log.error("ProductOffering '{}' does not contain a relatedParty with role='{}'", productOfferingId, role);
+        return null;
+    }
+}
@@ -0,0 +1,144 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.dto.tmforum.QuoteDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Priority queue of the next scheduler deadline of every quote, so that transitions fire within
+ * seconds of their date instead of waiting for the hourly scan.
+ *
+ * Fed by the read model: every created, changed or removed quote is re-indexed. The deadline of a quote
+ * is the date the next QuoteExpirationScheduler rule applying to it in its current state depends on:
+ * <ul>
+ *   <li>tailored quote in progress: requestedQuoteCompletionDate (expiration)</li>
+ *   <li>coordinator quote: effectiveQuoteCompletionDate once approved (acceptance), otherwise
+ *       expectedFulfillmentStartDate (approval, cancellation of pending tenders)</li>
+ *   <li>pending tender quote: the expectedFulfillmentStartDate of its coordinator (cancellation)</li>
+ * </ul>
+ * A deadline fires once; the quote is indexed again only when it changes. Superseded queue entries
+ * are discarded lazily when they reach the head of the queue.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QuoteDeadlineIndex implements QuoteReadModel.QuoteChangeListener {
+
+    private final QuoteReadModel quoteReadModel;
+    private final MeterRegistry meterRegistry;
+
+    private record Deadline(LocalDateTime dueAt, String quoteId) {}
+
+    private final PriorityQueue<Deadline> queue = new PriorityQueue<>(Comparator.comparing(Deadline::dueAt));
+
+    /** Current deadline per quote; queue entries not matching it are stale. */
+    private final Map<String, LocalDateTime> deadlines = new HashMap<>();
+
+    @PostConstruct
+    void init() {
+        quoteReadModel.addListener(this);
+        Gauge.builder("quote.scheduler.deadlines", this, QuoteDeadlineIndex::size)
+            .description("Quotes with a pending scheduler deadline")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void onQuoteChanged(QuoteDTO quote) {
+        schedule(quote);
+        if ("coordinator".equals(quote.getCategory())) {
+            // Tenders may have been indexed before their coordinator was known
+            for (QuoteDTO tender : quoteReadModel.findByExternalId(quote.getId())) {
+                if ("tender".equals(tender.getCategory())) {
+                    schedule(tender);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onQuoteRemoved(String quoteId) {
+        deadlines.remove(quoteId);
+    }
+
+    /**
+     * Remove and return the quotes whose deadline is before the given time.
+     * @param now the current time
+     * @return the ids of the due quotes, earliest deadline first
+     */
+    public synchronized List<String> pollDue(LocalDateTime now) {
+        List<String> due = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().dueAt().isBefore(now)) {
+            Deadline deadline = queue.poll();
+            if (deadline.dueAt().equals(deadlines.get(deadline.quoteId()))) {
+                deadlines.remove(deadline.quoteId());
+                due.add(deadline.quoteId());
+            }
+        }
+        return due;
+    }
+
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    private void schedule(QuoteDTO quote) {
+        LocalDateTime dueAt = nextDeadline(quote);
+        if (dueAt == null) {
+            deadlines.remove(quote.getId());
+            return;
+        }
+        if (!dueAt.equals(deadlines.put(quote.getId(), dueAt))) {
+            queue.add(new Deadline(dueAt, quote.getId()));
+            compactIfNeeded();
+        }
+    }
+
+    private LocalDateTime nextDeadline(QuoteDTO quote) {
+        if (quote.getId() == null) {
+            return null;
+        }
+        if ("tailored".equalsIgnoreCase(quote.getCategory())) {
+            return hasItemState(quote, "inProgress") ? quote.getRequestedQuoteCompletionDate() : null;
+        }
+        if ("coordinator".equals(quote.getCategory())) {
+            // Pending tenders of an approved coordinator carry their own cancellation deadline
+            return hasItemState(quote, "approved")
+                ? quote.getEffectiveQuoteCompletionDate()
+                : quote.getExpectedFulfillmentStartDate();
+        }
+        if ("tender".equals(quote.getCategory()) && quote.getExternalId() != null && hasItemState(quote, "pending")) {
+            Optional<QuoteDTO> coordinator = quoteReadModel.get(quote.getExternalId());
+            return coordinator.map(QuoteDTO::getExpectedFulfillmentStartDate).orElse(null);
+        }
+        return null;
+    }
+
+    /**
+     * Rebuild the queue when stale entries outnumber live ones.
+     */
+    private void compactIfNeeded() {
+        if (queue.size() > 2 * deadlines.size() + 1000) {
+            queue.clear();
+            deadlines.forEach((quoteId, dueAt) -> queue.add(new Deadline(dueAt, quoteId)));
+            log.debug("Compacted deadline queue to {} entries", queue.size());
+        }
+    }
+
+    private static boolean hasItemState(QuoteDTO quote, String state) {
+        return quote.getQuoteItem() != null
+            && quote.getQuoteItem().stream().anyMatch(item -> item != null && state.equals(item.getState()));
+    }
+}
@@ -1,413 +1,582 @@
-package com.dome.quotemanagement.service;
-
-import com.dome.quotemanagement.config.AppConfig;
-import com.dome.quotemanagement.dto.tmforum.QuoteDTO;
-import com.dome.quotemanagement.dto.tmforum.QuoteItemDTO;
-import com.dome.quotemanagement.dto.tmforum.NoteDTO;
-import com.dome.quotemanagement.dto.NotificationRequestDTO;
-import com.dome.quotemanagement.enums.QuoteRole;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-
-import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
-
-@Slf4j
-@Service
-@RequiredArgsConstructor
-public class QuoteExpirationScheduler {
-
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
-    private final NotificationService notificationService;
-    private final AppConfig appConfig;
-
-    @Value("${tmforum.api.base-url}")
-    private String tmforumBaseUrl;
-
-    @Scheduled(cron = "0 0 * * * ?") // Run every 1 hour
-    public void checkExpiredQuotes() {
-        log.info("Starting scheduled check for expired quotes");
-        try {
-            // Get all quotes
-            String url = tmforumBaseUrl.trim() + appConfig.getTmforumQuoteListEndpoint();
-            QuoteDTO[] quotes = restTemplate.getForObject(url, QuoteDTO[].class);
-            List<QuoteDTO> allQuotes = Arrays.asList(quotes != null ? quotes : new QuoteDTO[0]);
-
-            // Check each quote
-            for (QuoteDTO quote : allQuotes) {
-                if (isQuoteExpired(quote)) {
-                    handleExpiredQuote(quote);
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error checking expired quotes: {}", e.getMessage(), e);
-        }
-    }
-
-    @Scheduled(cron = "0 0 * * * ?") // Run every 1 hour
-    public void checkTenderQuotesStatus() {
-        log.info("Starting scheduled check for coordinator tender status updates");
-        try {
-            // Get all quotes
-            String url = tmforumBaseUrl.trim() + appConfig.getTmforumQuoteListEndpoint();
-            QuoteDTO[] quotes = restTemplate.getForObject(url, QuoteDTO[].class);
-            List<QuoteDTO> allQuotes = Arrays.asList(quotes != null ? quotes : new QuoteDTO[0]);
-
-            // Check each coordinator quote
-            for (QuoteDTO quote : allQuotes) {
-                if ("coordinator".equals(quote.getCategory())) {
-                    checkAndUpdateTenderQuoteStatus(quote);
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error checking coordinator tender status: {}", e.getMessage(), e);
-        }
-    }
-
-    @Scheduled(cron = "0 0 * * * ?") // Run every 1 hour
-    public void cancelPendingTendersAfterCoordinatorFulfillmentDate() {
-        log.info("Starting scheduled check: cancel pending tender quotes when coordinator expectedFulfillmentStartDate has passed");
-        try {
-            String url = tmforumBaseUrl.trim() + appConfig.getTmforumQuoteListEndpoint();
-            QuoteDTO[] quotes = restTemplate.getForObject(url, QuoteDTO[].class);
-            List<QuoteDTO> allQuotes = Arrays.asList(quotes != null ? quotes : new QuoteDTO[0]);
-
-            LocalDateTime now = LocalDateTime.now();
-
-            // Find coordinator quotes whose expectedFulfillmentStartDate has passed
-            for (QuoteDTO coordinatorQuote : allQuotes) {
-                if (!"coordinator".equals(coordinatorQuote.getCategory())) {
-                    continue;
-                }
-                if (coordinatorQuote.getExpectedFulfillmentStartDate() == null
-                        || !now.isAfter(coordinatorQuote.getExpectedFulfillmentStartDate())) {
-                    continue;
-                }
-
-                String coordinatorId = coordinatorQuote.getId();
-                if (coordinatorId == null || coordinatorId.trim().isEmpty()) {
-                    continue;
-                }
-
-                // Find tender quotes with externalId == coordinator quote id, state == pending
-                List<QuoteDTO> pendingTenders = allQuotes.stream()
-                        .filter(q -> "tender".equals(q.getCategory()))
-                        .filter(q -> coordinatorId.equals(q.getExternalId()))
-                        .filter(q -> hasQuoteItemState(q, "pending"))
-                        .collect(Collectors.toList());
-
-                for (QuoteDTO tenderQuote : pendingTenders) {
-                    log.info("Cancelling pending tender quote {} (externalId={}) - coordinator {} expectedFulfillmentStartDate passed",
-                            tenderQuote.getId(), coordinatorId, coordinatorId);
-                    updateTenderQuoteStatus(tenderQuote, "cancelled",
-                            "Tender automatically cancelled - coordinator expected fulfillment start date has been reached.",
-                            "pending");
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error cancelling pending tenders after coordinator fulfillment date: {}", e.getMessage(), e);
-        }
-    }
-
-    private boolean isQuoteExpired(QuoteDTO quote) {
-        if (quote.getRequestedQuoteCompletionDate() == null) {
-            return false;
-        }
-        if (!"tailored".equalsIgnoreCase(quote.getCategory())) {
-            return false;
-        }
-
-        LocalDateTime completionDate = quote.getRequestedQuoteCompletionDate();
-        LocalDateTime now = LocalDateTime.now();
-
-        return now.isAfter(completionDate) && hasQuoteItemState(quote, "inProgress");
-    }
-
-    private void checkAndUpdateTenderQuoteStatus(QuoteDTO quote) {
-        log.debug("Checking coordinator tender status: {}", quote.getId());
-        
-        try {
-            LocalDateTime now = LocalDateTime.now();
-            
-            // Check if we need to update to "approved" (when expectedFulfillmentStartDate is passed)
-            if (hasQuoteItemState(quote, "inProgress") && 
-                quote.getExpectedFulfillmentStartDate() != null &&
-                now.isAfter(quote.getExpectedFulfillmentStartDate())) {
-                
-                log.info("Updating coordinator tender {} from inProgress to approved - expectedFulfillmentStartDate passed", quote.getId());
-                updateTenderQuoteStatus(quote, "approved", 
-                    "Tender automatically approved - expected fulfillment start date has been reached.");
-            }
-            // Check if we need to update to "accepted" (when effectiveQuoteCompletionDate is passed)
-            else if (hasQuoteItemState(quote, "approved") && 
-                     quote.getEffectiveQuoteCompletionDate() != null &&
-                     now.isAfter(quote.getEffectiveQuoteCompletionDate())) {
-                
-                log.info("Updating coordinator tender {} from approved to accepted - effectiveQuoteCompletionDate passed", quote.getId());
-                updateTenderQuoteStatus(quote, "accepted", 
-                    "Tender automatically accepted - effective completion date has been reached.");
-            }
-            
-        } catch (Exception e) {
-            log.error("Error checking coordinator tender status for quote {}: {}", quote.getId(), e.getMessage(), e);
-        }
-    }
-
-    private void updateTenderQuoteStatus(QuoteDTO quote, String newStatus, String noteMessage) {
-        updateTenderQuoteStatus(quote, newStatus, noteMessage, null);
-    }
-
-    private void updateTenderQuoteStatus(QuoteDTO quote, String newStatus, String noteMessage, String onlyIfCurrentState) {
-        try {
-            if (onlyIfCurrentState != null && !hasQuoteItemState(quote, onlyIfCurrentState)) {
-                log.info("Skipping status update for quote {}: no quoteItem in state {}", quote.getId(), onlyIfCurrentState);
-                return;
-            }
-
-            String url = tmforumBaseUrl.trim() + appConfig.getTmforumQuoteEndpoint() + "/" + quote.getId();
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Accept", "application/json");
-
-            // Update quote status
-            String jsonPayload = buildStatusUpdateJson(newStatus, quote, onlyIfCurrentState);
-            HttpEntity<String> request = new HttpEntity<>(jsonPayload, headers);
-
-            restTemplate.exchange(url, org.springframework.http.HttpMethod.PATCH, request, QuoteDTO.class);
-
-            // Add note about status change
-            String notePayload = buildNoteUpdateJson(noteMessage, "SYSTEM", quote);
-            HttpEntity<String> noteRequest = new HttpEntity<>(notePayload, headers);
-            restTemplate.exchange(url, org.springframework.http.HttpMethod.PATCH, noteRequest, QuoteDTO.class);
-
-            // Send notifications
-            sendTenderStatusChangeNotifications(quote, newStatus);
-
-            log.info("Successfully updated coordinator tender {} to status: {}", quote.getId(), newStatus);
-        } catch (Exception e) {
-            log.error("Error updating coordinator tender {} status to {}: {}", quote.getId(), newStatus, e.getMessage(), e);
-        }
-    }
-
-    private void sendTenderStatusChangeNotifications(QuoteDTO quote, String newStatus) {
-        try {
-            // Find customer and provider IDs
-            String customerId = quote.getRelatedParty().stream()
-                .filter(party -> QuoteRole.isCustomer(party.getRole()))
-                .findFirst()
-                .map(party -> party.getId())
-                .orElse(null);
-
-            String providerId = quote.getRelatedParty().stream()
-                .filter(party -> QuoteRole.isSeller(party.getRole()))
-                .findFirst()
-                .map(party -> party.getId())
-                .orElse(null);
-
-            if (customerId != null && providerId != null) {
-                String message = getTenderStatusChangeMessage(quote, newStatus);
-
-                NotificationRequestDTO notification = NotificationRequestDTO.builder()
-                    .sender(providerId)
-                    .recipient(customerId)
-                    .subject("Tender Status Update")
-                    .message(message)
-                    .build();
-
-                notificationService.sendNotification(notification);
-            }
-        } catch (Exception e) {
-            log.error("Error sending tender status change notifications {}: {}", quote.getId(), e.getMessage(), e);
-        }
-    }
-
-    private String getTenderStatusChangeMessage(QuoteDTO quote, String newStatus) {
-        switch (newStatus.toLowerCase()) {
-            case "approved":
-                return String.format(
-                    "Coordinator Tender (ID: %s) has been automatically approved. The expected fulfillment start date (%s) has been reached.",
-                    quote.getId(),
-                    quote.getExpectedFulfillmentStartDate()
-                );
-            case "accepted":
-                return String.format(
-                    "Coordinator Tender (ID: %s) has been automatically accepted. The effective completion date (%s) has been reached.",
-                    quote.getId(),
-                    quote.getEffectiveQuoteCompletionDate()
-                );
-            default:
-                return String.format(
-                    "Coordinator Tender (ID: %s) status has been updated to: %s",
-                    quote.getId(),
-                    newStatus
-                );
-        }
-    }
-
-    private void handleExpiredQuote(QuoteDTO quote) {
-        log.info("Handling expired quote: {}", quote.getId());
-        try {
-            // Update quote status to cancelled
-            String url = tmforumBaseUrl.trim() + appConfig.getTmforumQuoteEndpoint() + "/" + quote.getId();
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Accept", "application/json");
-
-            // Create status update payload
-            String jsonPayload = buildStatusUpdateJson("cancelled", quote);
-            HttpEntity<String> request = new HttpEntity<>(jsonPayload, headers);
-
-            restTemplate.exchange(url, org.springframework.http.HttpMethod.PATCH, request, QuoteDTO.class);
-
-            // Add note about expiration
-            String noteUrl = tmforumBaseUrl.trim() + appConfig.getTmforumQuoteEndpoint() + "/" + quote.getId();
-            String notePayload = buildNoteUpdateJson(
-                "Quote automatically cancelled due to expiration of requested completion date.",
-                "SYSTEM",
-                quote
-            );
-            HttpEntity<String> noteRequest = new HttpEntity<>(notePayload, headers);
-            restTemplate.exchange(noteUrl, org.springframework.http.HttpMethod.PATCH, noteRequest, QuoteDTO.class);
-
-            // Send notification to customer and provider
-            sendExpirationNotifications(quote);
-
-            log.info("Successfully handled expired quote: {}", quote.getId());
-        } catch (Exception e) {
-            log.error("Error handling expired quote {}: {}", quote.getId(), e.getMessage(), e);
-        }
-    }
-
-    private void sendExpirationNotifications(QuoteDTO quote) {
-        try {
-            // Find customer and provider IDs
-            String customerId = quote.getRelatedParty().stream()
-                .filter(party -> QuoteRole.isCustomer(party.getRole()))
-                .findFirst()
-                .map(party -> party.getId())
-                .orElse(null);
-
-            String providerId = quote.getRelatedParty().stream()
-                .filter(party -> QuoteRole.isSeller(party.getRole()))
-                .findFirst()
-                .map(party -> party.getId())
-                .orElse(null);
-
-            if (customerId != null && providerId != null) {
-                String message = String.format(
-                    "Quote (ID: %s) has been automatically cancelled due to expiration of the requested completion date (%s).",
-                    quote.getId(),
-                    quote.getRequestedQuoteCompletionDate()
-                );
-
-                NotificationRequestDTO notification = NotificationRequestDTO.builder()
-                    .sender(providerId)
-                    .recipient(customerId)
-                    .subject("Quote Expired")
-                    .message(message)
-                    .build();
-
-                notificationService.sendNotification(notification);
-            }
-        } catch (Exception e) {
-            log.error("Error sending expiration notifications for quote {}: {}", quote.getId(), e.getMessage(), e);
-        }
-    }
-
-    private String buildStatusUpdateJson(String statusValue, QuoteDTO currentQuote) {
-        return buildStatusUpdateJson(statusValue, currentQuote, null);
-    }
-
-    private String buildStatusUpdateJson(String statusValue, QuoteDTO currentQuote, String onlyIfCurrentState) {
-        try {
-            ObjectNode updateJson = objectMapper.createObjectNode();
-            ArrayNode quoteItemArray = objectMapper.createArrayNode();
-
-            if (currentQuote.getQuoteItem() != null && !currentQuote.getQuoteItem().isEmpty()) {
-                for (QuoteItemDTO quoteItem : currentQuote.getQuoteItem()) {
-                    ObjectNode quoteItemJson = objectMapper.valueToTree(quoteItem);
-                    if (onlyIfCurrentState == null || onlyIfCurrentState.equals(quoteItem.getState())) {
-                        quoteItemJson.put("state", statusValue);
-                    }
-                    quoteItemArray.add(quoteItemJson);
-                }
-            } else {
-                ObjectNode quoteItemJson = objectMapper.createObjectNode();
-                quoteItemJson.put("@type", "QuoteItem");
-                quoteItemJson.put("state", statusValue);
-                quoteItemArray.add(quoteItemJson);
-            }
-
-            updateJson.set("quoteItem", quoteItemArray);
-            
-            return objectMapper.writeValueAsString(updateJson);
-        } catch (Exception e) {
-            log.error("Error building status update JSON: {}", e.getMessage());
-            throw new RuntimeException("Failed to build status update JSON", e);
-        }
-    }
-
-    private boolean hasQuoteItemState(QuoteDTO quote, String expectedState) {
-        return quote.getQuoteItem() != null
-                && quote.getQuoteItem().stream()
-                .map(QuoteItemDTO::getState)
-                .anyMatch(expectedState::equals);
-    }
-
-    private String buildNoteUpdateJson(String messageContent, String userId, QuoteDTO currentQuote) {
-        try {
-            ObjectNode updateJson = objectMapper.createObjectNode();
-            ArrayNode noteArray = objectMapper.createArrayNode();
-            
-            if (currentQuote.getNote() != null && !currentQuote.getNote().isEmpty()) {
-                for (NoteDTO existingNote : currentQuote.getNote()) {
-                    ObjectNode existingNoteObject = objectMapper.createObjectNode();
-                    existingNoteObject.put("@type", "Note");
-                    if (existingNote.getText() != null) {
-                        existingNoteObject.put("text", existingNote.getText());
-                    }
-                    if (existingNote.getDate() != null) {
-                        String dateString = existingNote.getDate().atZone(java.time.ZoneOffset.UTC).toInstant().toString();
-                        existingNoteObject.put("date", dateString);
-                    }
-                    if (existingNote.getAuthor() != null) {
-                        existingNoteObject.put("author", existingNote.getAuthor());
-                    }
-                    if (existingNote.getId() != null) {
-                        existingNoteObject.put("id", existingNote.getId());
-                    }
-                    noteArray.add(existingNoteObject);
-                }
-            }
-            
-            ObjectNode newNoteObject = objectMapper.createObjectNode();
-            newNoteObject.put("@type", "Note");
-            newNoteObject.put("text", messageContent);
-            newNoteObject.put("date", java.time.Instant.now().toString());
-            newNoteObject.put("author", userId);
-            
-            noteArray.add(newNoteObject);
-            updateJson.set("note", noteArray);
-            
-            return objectMapper.writeValueAsString(updateJson);
-        } catch (Exception e) {
-            log.error("Error building note update JSON: {}", e.getMessage());
-            throw new RuntimeException("Failed to build note update JSON", e);
-        }
-    }
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.config.AppConfig;
+import com.dome.quotemanagement.dto.tmforum.QuoteDTO;
+import com.dome.quotemanagement.dto.tmforum.QuoteItemDTO;
+import com.dome.quotemanagement.dto.NotificationRequestDTO;
+import com.dome.quotemanagement.enums.QuoteRole;
+import com.dome.quotemanagement.enums.QuoteStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+@Slf4j
+@Service
+public class QuoteExpirationScheduler {
+
+    /** The date whose passing moves a coordinator tender to the status, rendered in its notification. */
+    private static final Map<QuoteStatus, Function<QuoteDTO, LocalDateTime>> TENDER_STATUS_DATES = Map.of(
+        QuoteStatus.APPROVED, QuoteDTO::getExpectedFulfillmentStartDate,
+        QuoteStatus.ACCEPTED, QuoteDTO::getEffectiveQuoteCompletionDate
+    );
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final NotificationService notificationService;
+    private final NotificationTemplates notificationTemplates;
+    private final AppConfig appConfig;
+    private final QuoteReadModel quoteReadModel;
+    private final QuotePaginationEngine quotePaginationEngine;
+    private final QuoteDeadlineIndex quoteDeadlineIndex;
+    private final QuoteResponseCache quoteResponseCache;
+    private final Executor actionExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${tmforum.api.base-url}")
+    private String tmforumBaseUrl;
+
+    /**
+     * Quotes with an action running, so overlapping runs do not start the same work twice. It only covers actions
+     * in flight: an action that starts after another one completed is kept correct by re-reading the quote first.
+     */
+    private final Set<String> inFlightQuoteIds = ConcurrentHashMap.newKeySet();
+
+    /** The running tick, or the last one when idle; exposed as progress gauges. */
+    private volatile SchedulerTick currentTick = new SchedulerTick();
+
+    private Timer tickTimer;
+
+    public QuoteExpirationScheduler(RestTemplate restTemplate,
+                                    ObjectMapper objectMapper,
+                                    NotificationService notificationService,
+                                    NotificationTemplates notificationTemplates,
+                                    AppConfig appConfig,
+                                    QuoteReadModel quoteReadModel,
+                                    QuotePaginationEngine quotePaginationEngine,
+                                    QuoteDeadlineIndex quoteDeadlineIndex,
+                                    QuoteResponseCache quoteResponseCache,
+                                    @Qualifier("schedulerActionExecutor") Executor actionExecutor,
+                                    MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.notificationService = notificationService;
+        this.notificationTemplates = notificationTemplates;
+        this.appConfig = appConfig;
+        this.quoteReadModel = quoteReadModel;
+        this.quotePaginationEngine = quotePaginationEngine;
+        this.quoteDeadlineIndex = quoteDeadlineIndex;
+        this.quoteResponseCache = quoteResponseCache;
+        this.actionExecutor = actionExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        tickTimer = Timer.builder("quote.scheduler.tick.duration")
+            .description("Duration of a scheduler tick, until all of its actions have completed")
+            .register(meterRegistry);
+        Gauge.builder("quote.scheduler.actions.in-flight", inFlightQuoteIds, Set::size)
+            .description("Scheduler actions currently running")
+            .register(meterRegistry);
+        Gauge.builder("quote.scheduler.tick.evaluated", this, scheduler -> scheduler.currentTick.evaluated)
+            .description("Quotes evaluated by the current or last scheduler tick")
+            .register(meterRegistry);
+        Gauge.builder("quote.scheduler.tick.actions", this, scheduler -> scheduler.currentTick.submitted.get())
+            .description("Actions submitted by the current or last scheduler tick")
+            .tag("state", "submitted")
+            .register(meterRegistry);
+        Gauge.builder("quote.scheduler.tick.actions", this, scheduler -> scheduler.currentTick.completed.get())
+            .description("Actions completed by the current or last scheduler tick")
+            .tag("state", "completed")
+            .register(meterRegistry);
+        Gauge.builder("quote.scheduler.tick.actions", this, scheduler -> scheduler.currentTick.failed.get())
+            .description("Actions failed in the current or last scheduler tick")
+            .tag("state", "failed")
+            .register(meterRegistry);
+    }
+
+    /**
+     * State of one scheduler tick: progress counters, the actions submitted, and the coordinator-to-tender
+     * join. Only ids are kept for the join, so it stays small whatever the number of quotes.
+     */
+    private static final class SchedulerTick {
+        final Set<String> dueCoordinatorIds = new LinkedHashSet<>();
+        final Map<String, List<String>> pendingTenderIdsByCoordinator = new HashMap<>();
+        final List<CompletableFuture<Void>> actions = new ArrayList<>();
+        final AtomicInteger submitted = new AtomicInteger();
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        volatile int evaluated;
+    }
+
+    /**
+     * Fire the deadlines that passed since the last poll, so transitions happen within seconds of their date.
+     * Only the due quotes are evaluated; the hourly tick remains as a safety net for missed deadlines.
+     * Nothing fires until the read model has completed a crawl: deadlines indexed from a warm start come from
+     * persisted quotes that may be outdated, and stay in the index until then.
+     */
+    @Scheduled(fixedDelayString = "${quote.scheduler.deadline-poll-ms:5000}",
+               initialDelayString = "${quote.scheduler.deadline-poll-ms:5000}")
+    public void fireDueDeadlines() {
+        if (!quoteReadModel.hasCrawled()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<String> dueQuoteIds = quoteDeadlineIndex.pollDue(now);
+        if (dueQuoteIds.isEmpty()) {
+            return;
+        }
+        log.info("Firing {} due quote deadlines", dueQuoteIds.size());
+        SchedulerTick tick = new SchedulerTick();
+        try {
+            for (String quoteId : dueQuoteIds) {
+                QuoteDTO quote = quoteReadModel.get(quoteId).orElse(null);
+                if (quote == null) {
+                    continue;
+                }
+                evaluate(List.of(quote), now, tick);
+                // Complete the coordinator-to-tender join from the read model
+                if ("coordinator".equals(quote.getCategory())) {
+                    for (QuoteDTO tender : quoteReadModel.findByExternalId(quote.getId())) {
+                        collectTenderCancellationCandidate(tender, now, tick);
+                    }
+                } else if ("tender".equals(quote.getCategory()) && quote.getExternalId() != null) {
+                    quoteReadModel.get(quote.getExternalId())
+                        .ifPresent(coordinator -> collectTenderCancellationCandidate(coordinator, now, tick));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error evaluating due quote deadlines: {}", e.getMessage(), e);
+        }
+
+        cancelPendingTendersAfterCoordinatorFulfillmentDate(tick);
+
+        CompletableFuture.allOf(tick.actions.toArray(new CompletableFuture<?>[0])).join();
+        log.info("Due quote deadlines fired: {} quotes evaluated, {} actions completed, {} failed",
+            tick.evaluated, tick.completed.get(), tick.failed.get());
+    }
+
+    /**
+     * Hourly tick: walks every quote once and runs every rule against it, so TMForum is listed once per tick.
+     * Quotes come from the read model once it has completed a crawl, otherwise they are streamed page by page from TMForum.
+     * Per-quote actions run on the bounded scheduler action pool; the tick returns once all of them completed.
+     */
+    @Scheduled(cron = "${quote.scheduler.cron:0 0 * * * ?}") // Run every 1 hour by default
+    public void runScheduledChecks() {
+        log.info("Starting scheduled checks: expired quotes, coordinator tender status, pending tenders of due coordinators");
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        SchedulerTick tick = new SchedulerTick();
+        currentTick = tick;
+        try {
+            if (quoteReadModel.hasCrawled()) {
+                evaluate(quoteReadModel.findAll(), now, tick);
+            } else {
+                String baseUrl = tmforumBaseUrl.trim() + appConfig.getTmforumQuoteEndpoint();
+                quotePaginationEngine.stream(baseUrl, null, page -> evaluate(page, now, tick));
+            }
+        } catch (Exception e) {
+            log.error("Error walking quotes for scheduled checks: {}", e.getMessage(), e);
+        }
+
+        cancelPendingTendersAfterCoordinatorFulfillmentDate(tick);
+
+        CompletableFuture.allOf(tick.actions.toArray(new CompletableFuture<?>[0])).join();
+        tickTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.info("Scheduled checks finished: {} quotes evaluated, {} actions completed, {} failed",
+            tick.evaluated, tick.completed.get(), tick.failed.get());
+    }
+
+    /**
+     * Run the per-quote rules on a batch of quotes and collect the tender cancellation candidates.
+     */
+    private void evaluate(List<QuoteDTO> quotes, LocalDateTime now, SchedulerTick tick) {
+        for (QuoteDTO quote : quotes) {
+            if (quote == null) {
+                continue;
+            }
+            tick.evaluated++;
+            try {
+                if (isQuoteExpired(quote)) {
+                    submitAction(tick, quote.getId(), "expire", () -> handleExpiredQuote(quote.getId()));
+                }
+            } catch (Exception e) {
+                log.error("Error checking expired quotes: {}", e.getMessage(), e);
+            }
+            try {
+                if ("coordinator".equals(quote.getCategory())) {
+                    checkAndUpdateTenderQuoteStatus(quote, tick);
+                }
+            } catch (Exception e) {
+                log.error("Error checking coordinator tender status: {}", e.getMessage(), e);
+            }
+            collectTenderCancellationCandidate(quote, now, tick);
+        }
+    }
+
+    /**
+     * Run an action for a quote on the action pool, unless an action for the same quote is already running.
+     * Actions re-read their quotes before acting, so they stay correct whatever ran before them.
+     * When the pool is saturated the calling thread runs the action, which throttles the crawl.
+     */
+    private void submitAction(SchedulerTick tick, String quoteId, String action, BooleanSupplier work) {
+        if (quoteId == null || !inFlightQuoteIds.add(quoteId)) {
+            log.info("Skipping {} action for quote {}: an action for this quote is already running", action, quoteId);
+            meterRegistry.counter("quote.scheduler.actions", "action", action, "outcome", "skipped").increment();
+            return;
+        }
+        tick.submitted.incrementAndGet();
+        CompletableFuture<Void> future;
+        try {
+            future = CompletableFuture.runAsync(() -> {
+                boolean succeeded = false;
+                try {
+                    succeeded = work.getAsBoolean();
+                } finally {
+                    inFlightQuoteIds.remove(quoteId);
+                    (succeeded ? tick.completed : tick.failed).incrementAndGet();
+                    meterRegistry.counter("quote.scheduler.actions", "action", action,
+                        "outcome", succeeded ? "success" : "failure").increment();
+                }
+            }, actionExecutor);
+        } catch (RuntimeException e) {
+            inFlightQuoteIds.remove(quoteId);
+            tick.failed.incrementAndGet();
+            throw e;
+        }
+        // Failures are logged by the actions themselves, the tick only waits for completion
+        tick.actions.add(future.exceptionally(e -> null));
+    }
+
+    private void collectTenderCancellationCandidate(QuoteDTO quote, LocalDateTime now, SchedulerTick tick) {
+        if ("coordinator".equals(quote.getCategory())) {
+            // Coordinator quotes whose expectedFulfillmentStartDate has passed
+            if (quote.getExpectedFulfillmentStartDate() != null
+                    && now.isAfter(quote.getExpectedFulfillmentStartDate())
+                    && quote.getId() != null && !quote.getId().trim().isEmpty()) {
+                tick.dueCoordinatorIds.add(quote.getId());
+            }
+        } else if ("tender".equals(quote.getCategory())
+                && quote.getExternalId() != null
+                && hasQuoteItemState(quote, "pending")) {
+            tick.pendingTenderIdsByCoordinator.computeIfAbsent(quote.getExternalId(), id -> new ArrayList<>()).add(quote.getId());
+        }
+    }
+
+    /**
+     * Cancel the pending tender quotes (externalId == coordinator quote id) of every coordinator whose
+     * expectedFulfillmentStartDate has passed. The coordinator and each tender are fetched again so the update is
+     * based on their current state.
+     */
+    private void cancelPendingTendersAfterCoordinatorFulfillmentDate(SchedulerTick tick) {
+        try {
+            for (String coordinatorId : tick.dueCoordinatorIds) {
+                for (String tenderId : tick.pendingTenderIdsByCoordinator.getOrDefault(coordinatorId, List.of())) {
+                    submitAction(tick, tenderId, "tender-cancel", () -> {
+                        QuoteDTO coordinatorQuote = fetchQuote(coordinatorId);
+                        QuoteDTO tenderQuote = fetchQuote(tenderId);
+                        if (coordinatorQuote == null || tenderQuote == null) {
+                            return false;
+                        }
+                        LocalDateTime now = LocalDateTime.now();
+                        if (coordinatorQuote.getExpectedFulfillmentStartDate() == null
+                                || !now.isAfter(coordinatorQuote.getExpectedFulfillmentStartDate())
+                                || !coordinatorId.equals(tenderQuote.getExternalId())) {
+                            log.info("Skipping cancellation of tender quote {}: coordinator {} fulfillment start date no longer passed",
+                                    tenderId, coordinatorId);
+                            return true;
+                        }
+                        log.info("Cancelling pending tender quote {} (externalId={}) - coordinator {} expectedFulfillmentStartDate passed",
+                                tenderQuote.getId(), coordinatorId, coordinatorId);
+                        return updateTenderQuoteStatus(tenderQuote, "cancelled",
+                                "Tender automatically cancelled - coordinator expected fulfillment start date has been reached.",
+                                "pending");
+                    });
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error cancelling pending tenders after coordinator fulfillment date: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read the current state of a quote from TMForum, bypassing the cache TTL, so an action is never based on the
+     * possibly stale snapshot that triggered it.
+     * @return the quote, null if it could not be read
+     */
+    private QuoteDTO fetchQuote(String quoteId) {
+        try {
+            return quoteResponseCache.revalidate(quoteId);
+        } catch (Exception e) {
+            log.error("Error fetching quote {}: {}", quoteId, e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean isQuoteExpired(QuoteDTO quote) {
+        if (quote.getRequestedQuoteCompletionDate() == null) {
+            return false;
+        }
+        if (!"tailored".equalsIgnoreCase(quote.getCategory())) {
+            return false;
+        }
+
+        LocalDateTime completionDate = quote.getRequestedQuoteCompletionDate();
+        LocalDateTime now = LocalDateTime.now();
+
+        return now.isAfter(completionDate) && hasQuoteItemState(quote, "inProgress");
+    }
+
+    private void checkAndUpdateTenderQuoteStatus(QuoteDTO quote, SchedulerTick tick) {
+        log.debug("Checking coordinator tender status: {}", quote.getId());
+        
+        try {
+            String newStatus = dueTenderStatus(quote, LocalDateTime.now());
+            if ("approved".equals(newStatus)) {
+                log.info("Updating coordinator tender {} from inProgress to approved - expectedFulfillmentStartDate passed", quote.getId());
+            } else if ("accepted".equals(newStatus)) {
+                log.info("Updating coordinator tender {} from approved to accepted - effectiveQuoteCompletionDate passed", quote.getId());
+            }
+            if (newStatus != null) {
+                submitAction(tick, quote.getId(), "tender-status", () -> updateDueTenderStatus(quote.getId()));
+            }
+        } catch (Exception e) {
+            log.error("Error checking coordinator tender status for quote {}: {}", quote.getId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the status a coordinator tender has to move to, null if none is due
+     */
+    private String dueTenderStatus(QuoteDTO quote, LocalDateTime now) {
+        // "approved" when expectedFulfillmentStartDate is passed
+        if (hasQuoteItemState(quote, "inProgress") &&
+            quote.getExpectedFulfillmentStartDate() != null &&
+            now.isAfter(quote.getExpectedFulfillmentStartDate())) {
+            return "approved";
+        }
+        // "accepted" when effectiveQuoteCompletionDate is passed
+        if (hasQuoteItemState(quote, "approved") &&
+            quote.getEffectiveQuoteCompletionDate() != null &&
+            now.isAfter(quote.getEffectiveQuoteCompletionDate())) {
+            return "accepted";
+        }
+        return null;
+    }
+
+    /**
+     * Apply the status transition due on a coordinator tender, evaluated again on its current state.
+     * @return false if the update failed
+     */
+    private boolean updateDueTenderStatus(String quoteId) {
+        QuoteDTO quote = fetchQuote(quoteId);
+        if (quote == null) {
+            return false;
+        }
+        String newStatus = dueTenderStatus(quote, LocalDateTime.now());
+        if (newStatus == null) {
+            log.info("Skipping status update for coordinator tender {}: no transition due in its current state", quoteId);
+            return true;
+        }
+        String noteMessage = "approved".equals(newStatus)
+            ? "Tender automatically approved - expected fulfillment start date has been reached."
+            : "Tender automatically accepted - effective completion date has been reached.";
+        return updateTenderQuoteStatus(quote, newStatus, noteMessage);
+    }
+
+    private boolean updateTenderQuoteStatus(QuoteDTO quote, String newStatus, String noteMessage) {
+        return updateTenderQuoteStatus(quote, newStatus, noteMessage, null);
+    }
+
+    /**
+     * @return false if the update failed
+     */
+    private boolean updateTenderQuoteStatus(QuoteDTO quote, String newStatus, String noteMessage, String onlyIfCurrentState) {
+        try {
+            if (onlyIfCurrentState != null && !hasQuoteItemState(quote, onlyIfCurrentState)) {
+                log.info("Skipping status update for quote {}: no quoteItem in state {}", quote.getId(), onlyIfCurrentState);
+                return true;
+            }
+
+            String url = tmforumBaseUrl.trim() + appConfig.getTmforumQuoteEndpoint() + "/" + quote.getId();
+            
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set("Accept", "application/json");
+
+            // Update quote status and add a note about the change in a single PATCH
+            String jsonPayload = QuoteMutationBuilder.forQuote(objectMapper, quote)
+                .itemState(newStatus, onlyIfCurrentState)
+                .appendNote(noteMessage, "SYSTEM")
+                .build();
+            HttpEntity<String> request = new HttpEntity<>(jsonPayload, headers);
+
+            quoteReadModel.merge(restTemplate.exchange(url, org.springframework.http.HttpMethod.PATCH, request, QuoteDTO.class).getBody());
+            quoteResponseCache.invalidate(quote.getId());
+
+            // Send notifications
+            sendTenderStatusChangeNotifications(quote, newStatus);
+
+            log.info("Successfully updated coordinator tender {} to status: {}", quote.getId(), newStatus);
+            return true;
+        } catch (Exception e) {
+            log.error("Error updating coordinator tender {} status to {}: {}", quote.getId(), newStatus, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private void sendTenderStatusChangeNotifications(QuoteDTO quote, String newStatus) {
+        try {
+            // Find customer and provider IDs
+            String customerId = quote.getRelatedParty().stream()
+                .filter(party -> QuoteRole.isCustomer(party.getRole()))
+                .findFirst()
+                .map(party -> party.getId())
+                .orElse(null);
+
+            String providerId = quote.getRelatedParty().stream()
+                .filter(party -> QuoteRole.isSeller(party.getRole()))
+                .findFirst()
+                .map(party -> party.getId())
+                .orElse(null);
+
+            if (customerId != null && providerId != null) {
+                String message = getTenderStatusChangeMessage(quote, newStatus);
+
+                NotificationRequestDTO notification = NotificationRequestDTO.builder()
+                    .sender(providerId)
+                    .recipient(customerId)
+                    .subject(notificationTemplates.render(NotificationTemplates.Template.TENDER_STATUS_UPDATE_SUBJECT))
+                    .message(message)
+                    .build();
+
+                notificationService.sendNotification(notification, quote.getId(), "status-" + newStatus);
+            }
+        } catch (Exception e) {
+            log.error("Error sending tender status change notifications {}: {}", quote.getId(), e.getMessage(), e);
+        }
+    }
+
+    private String getTenderStatusChangeMessage(QuoteDTO quote, String newStatus) {
+        QuoteStatus status = QuoteStatus.fromValue(newStatus);
+        Function<QuoteDTO, LocalDateTime> date = status != null ? TENDER_STATUS_DATES.get(status) : null;
+        String message = date != null
+            ? notificationTemplates.renderTenderStatus(status, quote.getId(), date.apply(quote))
+            : null;
+        return message != null ? message : notificationTemplates.render(NotificationTemplates.Template.TENDER_STATUS_UPDATED,
+            quote.getId(),
+            newStatus
+        );
+    }
+
+    /**
+     * Cancel a quote found expired, after checking that its current state is still expired.
+     * @return false if the quote could not be cancelled
+     */
+    private boolean handleExpiredQuote(String quoteId) {
+        log.info("Handling expired quote: {}", quoteId);
+        QuoteDTO quote = fetchQuote(quoteId);
+        if (quote == null) {
+            return false;
+        }
+        if (!isQuoteExpired(quote)) {
+            log.info("Skipping expiration of quote {}: not expired in its current state", quoteId);
+            return true;
+        }
+        try {
+            // Update quote status to cancelled
+            String url = tmforumBaseUrl.trim() + appConfig.getTmforumQuoteEndpoint() + "/" + quote.getId();
+            
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set("Accept", "application/json");
+
+            // Cancel the quote and add a note about the expiration in a single PATCH
+            String jsonPayload = QuoteMutationBuilder.forQuote(objectMapper, quote)
+                .itemState("cancelled")
+                .appendNote("Quote automatically cancelled due to expiration of requested completion date.", "SYSTEM")
+                .build();
+            HttpEntity<String> request = new HttpEntity<>(jsonPayload, headers);
+
+            quoteReadModel.merge(restTemplate.exchange(url, org.springframework.http.HttpMethod.PATCH, request, QuoteDTO.class).getBody());
+            quoteResponseCache.invalidate(quote.getId());
+
+            // Send notification to customer and provider
+            sendExpirationNotifications(quote);
+
+            log.info("Successfully handled expired quote: {}", quote.getId());
+            return true;
+        } catch (Exception e) {
+            log.error("Error handling expired quote {}: {}", quote.getId(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private void sendExpirationNotifications(QuoteDTO quote) {
+        try {
+            // Find customer and provider IDs
+            String customerId = quote.getRelatedParty().stream()
+                .filter(party -> QuoteRole.isCustomer(party.getRole()))
+                .findFirst()
+                .map(party -> party.getId())
+                .orElse(null);
+
+            String providerId = quote.getRelatedParty().stream()
+                .filter(party -> QuoteRole.isSeller(party.getRole()))
+                .findFirst()
+                .map(party -> party.getId())
+                .orElse(null);
+
+            if (customerId != null && providerId != null) {
+                String message = notificationTemplates.render(NotificationTemplates.Template.QUOTE_EXPIRED,
+                    quote.getId(),
+                    quote.getRequestedQuoteCompletionDate()
+                );
+
+                NotificationRequestDTO notification = NotificationRequestDTO.builder()
+                    .sender(providerId)
+                    .recipient(customerId)
+                    .subject(notificationTemplates.render(NotificationTemplates.Template.QUOTE_EXPIRED_SUBJECT))
+                    .message(message)
+                    .build();
+
+                notificationService.sendNotification(notification, quote.getId(), "expired");
+            }
+        } catch (Exception e) {
+            log.error("Error sending expiration notifications for quote {}: {}", quote.getId(), e.getMessage(), e);
+        }
+    }
+
+    private boolean hasQuoteItemState(QuoteDTO quote, String expectedState) {
+        return quote.getQuoteItem() != null
+                && quote.getQuoteItem().stream()
+                .map(QuoteItemDTO::getState)
+                .anyMatch(expectedState::equals);
+    }
 }
\ No newline at end of file
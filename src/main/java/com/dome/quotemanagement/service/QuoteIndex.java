@@ -0,0 +1,170 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.dto.tmforum.QuoteDTO;
+import com.dome.quotemanagement.dto.tmforum.RelatedPartyDTO;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Secondary indexes over a set of quotes: party id to quote ids by role, category to quote ids
+ * and externalId to quote ids.
+ *
+ * Roles and categories are keyed trimmed and lower-cased, matching QuoteRole.equalsIgnoreCase.
+ * The keys a quote was indexed under are remembered, so a quote can be re-indexed or removed by id.
+ * Not thread-safe: the owner guards access.
+ */
+public class QuoteIndex {
+
+    /**
+     * The index keys of one quote.
+     */
+    private record Keys(Map<String, Set<String>> rolesByParty, String category, String externalId) {}
+
+    private final Map<String, Map<String, Set<String>>> byPartyAndRole = new HashMap<>();
+    private final Map<String, Set<String>> byCategory = new HashMap<>();
+    private final Map<String, Set<String>> byExternalId = new HashMap<>();
+    private final Map<String, Keys> keysByQuote = new HashMap<>();
+
+    /**
+     * Index a quote, replacing any previous entry with the same id.
+     * @param quote the quote
+     */
+    public void add(QuoteDTO quote) {
+        if (quote == null || quote.getId() == null) {
+            return;
+        }
+        String quoteId = quote.getId();
+        remove(quoteId);
+
+        Map<String, Set<String>> rolesByParty = new HashMap<>();
+        List<RelatedPartyDTO> parties = quote.getRelatedParty();
+        if (parties != null) {
+            for (RelatedPartyDTO party : parties) {
+                if (party != null && party.getId() != null) {
+                    String role = normalize(party.getRole());
+                    rolesByParty.computeIfAbsent(party.getId(), id -> new HashSet<>()).add(role);
+                    byPartyAndRole.computeIfAbsent(party.getId(), id -> new HashMap<>())
+                        .computeIfAbsent(role, r -> new HashSet<>())
+                        .add(quoteId);
+                }
+            }
+        }
+        String category = normalize(quote.getCategory());
+        byCategory.computeIfAbsent(category, c -> new HashSet<>()).add(quoteId);
+        String externalId = quote.getExternalId();
+        if (externalId != null) {
+            byExternalId.computeIfAbsent(externalId, e -> new HashSet<>()).add(quoteId);
+        }
+        keysByQuote.put(quoteId, new Keys(rolesByParty, category, externalId));
+    }
+
+    /**
+     * Remove a quote from every index.
+     * @param quoteId the quote id
+     */
+    public void remove(String quoteId) {
+        Keys keys = keysByQuote.remove(quoteId);
+        if (keys == null) {
+            return;
+        }
+        keys.rolesByParty().forEach((partyId, roles) -> {
+            Map<String, Set<String>> quotesByRole = byPartyAndRole.get(partyId);
+            if (quotesByRole != null) {
+                roles.forEach(role -> removeFrom(quotesByRole, role, quoteId));
+                if (quotesByRole.isEmpty()) {
+                    byPartyAndRole.remove(partyId);
+                }
+            }
+        });
+        removeFrom(byCategory, keys.category(), quoteId);
+        if (keys.externalId() != null) {
+            removeFrom(byExternalId, keys.externalId(), quoteId);
+        }
+    }
+
+    /**
+     * @param partyId the related party id
+     * @param role the party role (case-insensitive), or null for any role
+     * @return ids of the quotes where the party appears with that role
+     */
+    public Set<String> byParty(String partyId, String role) {
+        Map<String, Set<String>> quotesByRole = byPartyAndRole.get(partyId);
+        if (quotesByRole == null) {
+            return Collections.emptySet();
+        }
+        if (role != null) {
+            return quotesByRole.getOrDefault(normalize(role), Collections.emptySet());
+        }
+        if (quotesByRole.size() == 1) {
+            return quotesByRole.values().iterator().next();
+        }
+        Set<String> quoteIds = new HashSet<>();
+        quotesByRole.values().forEach(quoteIds::addAll);
+        return quoteIds;
+    }
+
+    /**
+     * @param category the quote category (case-insensitive)
+     * @return ids of the quotes in that category
+     */
+    public Set<String> byCategory(String category) {
+        return byCategory.getOrDefault(normalize(category), Collections.emptySet());
+    }
+
+    /**
+     * @param externalId the external id, e.g. the coordinator quote id of a tender
+     * @return ids of the quotes carrying that external id
+     */
+    public Set<String> byExternalId(String externalId) {
+        return byExternalId.getOrDefault(externalId, Collections.emptySet());
+    }
+
+    /**
+     * Intersect id sets, iterating only the smallest one.
+     * @param sets the sets to intersect
+     * @return the ids present in every set
+     */
+    @SafeVarargs
+    public static Set<String> intersect(Set<String>... sets) {
+        Set<String> smallest = sets[0];
+        for (Set<String> set : sets) {
+            if (set.size() < smallest.size()) {
+                smallest = set;
+            }
+        }
+        Set<String> result = new HashSet<>();
+        for (String quoteId : smallest) {
+            boolean inAll = true;
+            for (Set<String> set : sets) {
+                if (set != smallest && !set.contains(quoteId)) {
+                    inAll = false;
+                    break;
+                }
+            }
+            if (inAll) {
+                result.add(quoteId);
+            }
+        }
+        return result;
+    }
+
+    private static void removeFrom(Map<String, Set<String>> index, String key, String quoteId) {
+        Set<String> quoteIds = index.get(key);
+        if (quoteIds != null) {
+            quoteIds.remove(quoteId);
+            if (quoteIds.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,121 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.dto.tmforum.NoteDTO;
+import com.dome.quotemanagement.dto.tmforum.QuoteDTO;
+import com.dome.quotemanagement.dto.tmforum.QuoteItemDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Builds one TMForum PATCH body combining several changes to a quote, so that a state transition
+ * and its explanatory note are written in a single request.
+ *
+ * TMForum replaces arrays as a whole, so every array touched is rebuilt from the current quote.
+ */
+public class QuoteMutationBuilder {
+
+    private final ObjectMapper objectMapper;
+    private final QuoteDTO currentQuote;
+    private final ObjectNode patch;
+
+    private QuoteMutationBuilder(ObjectMapper objectMapper, QuoteDTO currentQuote) {
+        this.objectMapper = objectMapper;
+        this.currentQuote = currentQuote;
+        this.patch = objectMapper.createObjectNode();
+    }
+
+    /**
+     * @param objectMapper the mapper used to serialize the current quote items
+     * @param currentQuote the quote as currently stored in TMForum
+     * @return a builder with no change yet
+     */
+    public static QuoteMutationBuilder forQuote(ObjectMapper objectMapper, QuoteDTO currentQuote) {
+        return new QuoteMutationBuilder(objectMapper, currentQuote);
+    }
+
+    /**
+     * Set the state of every quote item. A quote without items gets a single item carrying the state.
+     * @param state the new state
+     * @return this builder
+     */
+    public QuoteMutationBuilder itemState(String state) {
+        return itemState(state, null);
+    }
+
+    /**
+     * Set the state of the quote items currently in a given state, keeping the others unchanged.
+     * @param state the new state
+     * @param onlyIfCurrentState only items in this state are changed; null changes every item
+     * @return this builder
+     */
+    public QuoteMutationBuilder itemState(String state, String onlyIfCurrentState) {
+        ArrayNode quoteItemArray = objectMapper.createArrayNode();
+        if (currentQuote.getQuoteItem() != null && !currentQuote.getQuoteItem().isEmpty()) {
+            for (QuoteItemDTO quoteItem : currentQuote.getQuoteItem()) {
+                ObjectNode quoteItemJson = objectMapper.valueToTree(quoteItem);
+                if (onlyIfCurrentState == null || onlyIfCurrentState.equals(quoteItem.getState())) {
+                    quoteItemJson.put("state", state);
+                }
+                quoteItemArray.add(quoteItemJson);
+            }
+        } else {
+            ObjectNode quoteItemJson = objectMapper.createObjectNode();
+            quoteItemJson.put("@type", "QuoteItem");
+            quoteItemJson.put("state", state);
+            quoteItemArray.add(quoteItemJson);
+        }
+        patch.set("quoteItem", quoteItemArray);
+        return this;
+    }
+
+    /**
+     * Append a note after the existing notes of the quote.
+     * @param text the note text
+     * @param author the note author
+     * @return this builder
+     */
+    public QuoteMutationBuilder appendNote(String text, String author) {
+        ArrayNode noteArray = objectMapper.createArrayNode();
+        if (currentQuote.getNote() != null) {
+            for (NoteDTO existingNote : currentQuote.getNote()) {
+                ObjectNode existingNoteObject = objectMapper.createObjectNode();
+                existingNoteObject.put("@type", "Note");
+                if (existingNote.getText() != null) {
+                    existingNoteObject.put("text", existingNote.getText());
+                }
+                if (existingNote.getDate() != null) {
+                    existingNoteObject.put("date", existingNote.getDate().atZone(java.time.ZoneOffset.UTC).toInstant().toString());
+                }
+                if (existingNote.getAuthor() != null) {
+                    existingNoteObject.put("author", existingNote.getAuthor());
+                }
+                if (existingNote.getId() != null) {
+                    existingNoteObject.put("id", existingNote.getId());
+                }
+                noteArray.add(existingNoteObject);
+            }
+        }
+
+        ObjectNode newNoteObject = objectMapper.createObjectNode();
+        newNoteObject.put("@type", "Note");
+        newNoteObject.put("text", text);
+        newNoteObject.put("date", java.time.Instant.now().toString());
+        newNoteObject.put("author", author);
+        noteArray.add(newNoteObject);
+
+        patch.set("note", noteArray);
+        return this;
+    }
+
+    /**
+     * @return the PATCH body as JSON
+     */
+    public String build() {
+        try {
+            return objectMapper.writeValueAsString(patch);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to build quote update JSON", e);
+        }
+    }
+}
@@ -0,0 +1,564 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.dto.tmforum.QuoteDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Walks the TMForum quote collection using limit/offset pagination.
+ *
+ * Several offset windows are requested concurrently (quote.pagination.concurrency) and the
+ * responses are consumed strictly in offset order, so the result list and the skip accounting
+ * are the same as with a sequential walk.
+ *
+ * The page size adapts AIMD-style: it grows by quote.pagination.increase-step after every full
+ * page and is halved whenever the upstream rejects a page for exceeding the content limit. A page
+ * that cannot be fetched is bisected until the offending quotes are isolated; those "heavy" quotes
+ * are remembered per query so later walks route around them with a cheap id-only check instead of
+ * failing the surrounding page again.
+ */
+@Slf4j
+@Component
+public class QuotePaginationEngine {
+
+    private static final int MAX_CONSECUTIVE_FAILURES = 3;
+    private static final int MAX_TRACKED_QUERIES = 1000;
+
+    private final RestTemplate restTemplate;
+    private final Executor pageExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${quote.pagination.page-size:10}")
+    private int paginationPageSize;
+
+    @Value("${quote.pagination.concurrency:4}")
+    private int paginationConcurrency;
+
+    @Value("${quote.pagination.max-page-size:20}")
+    private int maxPageSize;
+
+    @Value("${quote.pagination.increase-step:1}")
+    private int increaseStep;
+
+    @Value("${quote.pagination.heavy-ttl-minutes:60}")
+    private long heavyTtlMinutes;
+
+    /** Page size learned from previous walks, shared by all queries. */
+    private final AtomicInteger learnedPageSize = new AtomicInteger();
+
+    /** Heavy quotes per query signature, keyed by offset. */
+    private final Map<String, NavigableMap<Integer, HeavyQuote>> heavyQuotesByQuery = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, NavigableMap<Integer, HeavyQuote>> eldest) {
+                return size() > MAX_TRACKED_QUERIES;
+            }
+        });
+
+    /** Ids of all quotes currently known to be too large to fetch. */
+    private final Set<String> heavyQuoteIds = ConcurrentHashMap.newKeySet();
+
+    public QuotePaginationEngine(RestTemplate restTemplate,
+                                 @Qualifier("quotePageExecutor") Executor pageExecutor,
+                                 MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.pageExecutor = pageExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        learnedPageSize.set(Math.max(1, Math.min(paginationPageSize, Math.max(1, maxPageSize))));
+        Gauge.builder("quote.pagination.page.size", learnedPageSize, AtomicInteger::get)
+            .description("Page size currently used to walk the TMForum quote collection")
+            .register(meterRegistry);
+        Gauge.builder("quote.pagination.heavy.quotes", heavyQuoteIds, Set::size)
+            .description("Number of quotes known to exceed the upstream content limit")
+            .register(meterRegistry);
+    }
+
+    /**
+     * A quote that could not be fetched even on its own.
+     * The id is null when the upstream does not support the id-only projection.
+     */
+    private record HeavyQuote(String id, Instant learnedAt) {}
+
+    /**
+     * A request planned for one window: a regular page, or a check of a known heavy offset.
+     */
+    private record Segment(int offset, int limit, HeavyQuote heavy) {
+        boolean isHeavyCheck() {
+            return heavy != null;
+        }
+    }
+
+    /**
+     * Outcome of a single page request: either the quotes returned or the error raised.
+     */
+    private record PageOutcome(int offset, int limit, QuoteDTO[] quotes, Exception error) {
+        boolean failed() {
+            return error != null;
+        }
+    }
+
+    /**
+     * Mutable state of one pagination walk.
+     */
+    private static final class WalkState {
+        final Consumer<List<QuoteDTO>> pageConsumer;
+        final String baseUrl;
+        final Map<String, String> queryParams;
+        final NavigableMap<Integer, HeavyQuote> heavyQuotes;
+        int offset = 0;
+        int retrieved = 0;
+        int pageNumber = 0;
+        int consecutiveFailures = 0;
+        int skippedQuotes = 0;
+        boolean finished = false;
+        boolean aborted = false;
+
+        WalkState(String baseUrl, Map<String, String> queryParams, NavigableMap<Integer, HeavyQuote> heavyQuotes,
+                  Consumer<List<QuoteDTO>> pageConsumer) {
+            this.baseUrl = baseUrl;
+            this.queryParams = queryParams;
+            this.heavyQuotes = heavyQuotes;
+            this.pageConsumer = pageConsumer;
+        }
+
+        void deliver(QuoteDTO[] quotes) {
+            retrieved += quotes.length;
+            pageConsumer.accept(Arrays.asList(quotes));
+        }
+    }
+
+    /**
+     * Result of a pagination walk.
+     * @param quotes the quotes retrieved, in upstream order (empty when the pages were streamed to a consumer)
+     * @param retrievedQuotes number of quotes retrieved
+     * @param skippedQuotes number of quotes that could not be fetched
+     * @param complete true when the walk reached the end of the collection, false when it stopped on repeated failures;
+     *                 a complete walk may still have skipped quotes, so only a complete walk with no skipped quote
+     *                 proves that a quote missing from it no longer exists
+     */
+    public record PaginationResult(List<QuoteDTO> quotes, int retrievedQuotes, int skippedQuotes, boolean complete) {}
+
+    /**
+     * Fetch every quote matching the optional query parameters.
+     * @param baseUrl the quote collection URL without query parameters
+     * @param queryParams optional server-side filters (may be null)
+     * @return all quotes in upstream order, minus the ones that could not be fetched
+     */
+    public List<QuoteDTO> fetchAll(String baseUrl, Map<String, String> queryParams) {
+        return walk(baseUrl, queryParams).quotes();
+    }
+
+    /**
+     * Walk the whole collection, reporting whether the end of the collection was actually reached.
+     * @param baseUrl the quote collection URL without query parameters
+     * @param queryParams optional server-side filters (may be null)
+     * @return the quotes retrieved together with the skip accounting
+     */
+    public PaginationResult walk(String baseUrl, Map<String, String> queryParams) {
+        List<QuoteDTO> quotes = new ArrayList<>();
+        PaginationResult result = stream(baseUrl, queryParams, quotes::addAll);
+        return new PaginationResult(quotes, result.retrievedQuotes(), result.skippedQuotes(), result.complete());
+    }
+
+    /**
+     * Walk the whole collection handing each page to a consumer as soon as it is available, in upstream order.
+     * Nothing is retained, so memory stays bounded by the pages in flight whatever the collection size.
+     * An exception thrown by the consumer stops the walk and is propagated.
+     * @param baseUrl the quote collection URL without query parameters
+     * @param queryParams optional server-side filters (may be null)
+     * @param pageConsumer receives the quotes of each page
+     * @return the skip accounting, with an empty quote list
+     */
+    public PaginationResult stream(String baseUrl, Map<String, String> queryParams, Consumer<List<QuoteDTO>> pageConsumer) {
+        int concurrency = Math.max(1, paginationConcurrency);
+        WalkState state = new WalkState(baseUrl, queryParams, heavyQuotesFor(baseUrl, queryParams), pageConsumer);
+
+        log.debug("Fetching quotes with parallel pagination (pageSize={}, concurrency={}, knownHeavy={}): {}",
+                learnedPageSize.get(), concurrency, state.heavyQuotes.size(), baseUrl);
+
+        while (!state.finished) {
+            // Issue the next window of requests concurrently
+            List<Segment> plan = planWindow(state, learnedPageSize.get(), concurrency);
+            List<CompletableFuture<PageOutcome>> window = new ArrayList<>(plan.size());
+            for (Segment segment : plan) {
+                window.add(segment.isHeavyCheck()
+                    ? fetchIdProjectionAsync(state, segment.offset())
+                    : fetchPageAsync(state, segment.offset(), segment.limit()));
+            }
+
+            // Consume the window in offset order; anything after the end of the collection is discarded
+            for (int i = 0; i < plan.size(); i++) {
+                if (state.finished) {
+                    window.get(i).cancel(false);
+                    continue;
+                }
+                Segment segment = plan.get(i);
+                PageOutcome outcome = window.get(i).join();
+                if (segment.isHeavyCheck()) {
+                    handleHeavyCheck(segment, outcome, state);
+                } else if (outcome.failed()) {
+                    handleFailedPage(outcome, state);
+                } else {
+                    handlePage(outcome, state);
+                }
+            }
+        }
+
+        if (state.skippedQuotes > 0) {
+            log.warn("Retrieved {} quotes total using pagination ({} pages), but {} quotes were skipped due to size exceeding 10MB limit (likely due to large attachments)",
+                    state.retrieved, state.pageNumber + 1, state.skippedQuotes);
+        } else {
+            log.info("Successfully retrieved {} quotes total using pagination ({} pages)", state.retrieved, state.pageNumber + 1);
+        }
+        return new PaginationResult(List.of(), state.retrieved, state.skippedQuotes, !state.aborted);
+    }
+
+    /**
+     * Current AIMD page size.
+     */
+    public int getLearnedPageSize() {
+        return learnedPageSize.get();
+    }
+
+    /**
+     * Ids of the quotes currently known to exceed the upstream content limit.
+     */
+    public Set<String> getHeavyQuoteIds() {
+        return Collections.unmodifiableSet(heavyQuoteIds);
+    }
+
+    /**
+     * Split the next part of the collection into at most {@code concurrency} requests,
+     * stopping every page right before a known heavy offset.
+     */
+    private List<Segment> planWindow(WalkState state, int pageSize, int concurrency) {
+        List<Segment> plan = new ArrayList<>(concurrency);
+        int cursor = state.offset;
+        while (plan.size() < concurrency) {
+            Map.Entry<Integer, HeavyQuote> nextHeavy = state.heavyQuotes.ceilingEntry(cursor);
+            if (nextHeavy != null && nextHeavy.getKey() == cursor) {
+                plan.add(new Segment(cursor, 1, nextHeavy.getValue()));
+                cursor++;
+                continue;
+            }
+            int limit = nextHeavy != null ? Math.min(pageSize, nextHeavy.getKey() - cursor) : pageSize;
+            plan.add(new Segment(cursor, limit, null));
+            cursor += limit;
+        }
+        return plan;
+    }
+
+    private void handlePage(PageOutcome outcome, WalkState state) {
+        QuoteDTO[] quotes = outcome.quotes();
+        state.consecutiveFailures = 0;
+
+        if (quotes == null || quotes.length == 0) {
+            state.finished = true;
+            log.debug("No more quotes found at page {}", state.pageNumber + 1);
+            return;
+        }
+
+        state.deliver(quotes);
+        log.debug("Retrieved {} quotes from page {} (total so far: {})", quotes.length, state.pageNumber + 1, state.retrieved);
+
+        if (quotes.length < outcome.limit()) {
+            state.finished = true;
+            log.debug("Reached end of quotes (got {} quotes, expected {})", quotes.length, outcome.limit());
+        } else {
+            if (outcome.limit() >= learnedPageSize.get()) {
+                increasePageSize();
+            }
+            state.offset += outcome.limit();
+            state.pageNumber++;
+        }
+    }
+
+    private void handleFailedPage(PageOutcome outcome, WalkState state) {
+        Exception e = outcome.error();
+        boolean httpError = e instanceof HttpClientErrorException || e instanceof HttpServerErrorException;
+        boolean contentLengthError = isContentLengthError(e);
+
+        if (contentLengthError) {
+            decreasePageSize(outcome.limit());
+        }
+
+        if (outcome.limit() > 1 && (httpError || contentLengthError)) {
+            log.warn("Error fetching page {} with pageSize {}: {}. Splitting the page to isolate oversized quotes.",
+                    state.pageNumber + 1, outcome.limit(), e.getMessage());
+            recoverRange(outcome.offset(), outcome.limit(), state);
+            if (!state.finished) {
+                state.offset += outcome.limit();
+                state.pageNumber++;
+            }
+            return;
+        }
+
+        if (outcome.limit() == 1 && (httpError || contentLengthError)) {
+            skipHeavyQuote(outcome, state);
+            state.offset += 1;
+            state.pageNumber++;
+            return;
+        }
+
+        log.error("Error fetching page {}: {}. Skipping this page.", state.pageNumber + 1, e.getMessage());
+        state.consecutiveFailures++;
+        state.offset += outcome.limit();
+        state.pageNumber++;
+        if (state.consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+            log.error("Too many consecutive failures ({}). Stopping pagination.", state.consecutiveFailures);
+            state.finished = true;
+            state.aborted = true;
+        }
+    }
+
+    /**
+     * Bisect a failed range, fetching both halves concurrently and consuming them in order,
+     * until every quote is either retrieved or isolated as heavy.
+     */
+    private void recoverRange(int offset, int limit, WalkState state) {
+        if (limit == 1) {
+            PageOutcome single = fetchPageAsync(state, offset, 1).join();
+            consumeRecovered(single, state);
+            return;
+        }
+
+        int leftLimit = limit / 2;
+        int rightLimit = limit - leftLimit;
+        CompletableFuture<PageOutcome> left = fetchPageAsync(state, offset, leftLimit);
+        CompletableFuture<PageOutcome> right = fetchPageAsync(state, offset + leftLimit, rightLimit);
+
+        for (CompletableFuture<PageOutcome> future : List.of(left, right)) {
+            if (state.finished) {
+                future.cancel(false);
+                continue;
+            }
+            PageOutcome half = future.join();
+            if (half.failed() && half.limit() > 1) {
+                if (isContentLengthError(half.error())) {
+                    decreasePageSize(half.limit());
+                }
+                recoverRange(half.offset(), half.limit(), state);
+            } else {
+                consumeRecovered(half, state);
+            }
+        }
+    }
+
+    private void consumeRecovered(PageOutcome outcome, WalkState state) {
+        if (outcome.failed()) {
+            skipHeavyQuote(outcome, state);
+            return;
+        }
+        QuoteDTO[] quotes = outcome.quotes();
+        if (quotes == null || quotes.length == 0) {
+            state.finished = true;
+            log.debug("No quotes returned while splitting page, reached end");
+            return;
+        }
+        state.deliver(quotes);
+        state.consecutiveFailures = 0;
+        log.info("Successfully retrieved {} quote(s) from split page (total so far: {})", quotes.length, state.retrieved);
+        if (quotes.length < outcome.limit()) {
+            state.finished = true;
+        }
+    }
+
+    /**
+     * Count a quote that failed on its own as skipped and remember it when it is oversized.
+     */
+    private void skipHeavyQuote(PageOutcome single, WalkState state) {
+        state.skippedQuotes++;
+        state.consecutiveFailures++;
+        log.error("Even single quote fetch failed at offset {}: {}. Skipping this quote (too large, likely >10MB attachment) and continuing. Total skipped: {}",
+                single.offset(), single.error().getMessage(), state.skippedQuotes);
+
+        // Only size failures are remembered; transient errors must not hide a quote on later walks
+        if (isContentLengthError(single.error())) {
+            rememberHeavyQuote(state, single.offset());
+        }
+
+        if (state.consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+            log.error("Too many consecutive failures ({}). Stopping pagination to avoid infinite loop.", state.consecutiveFailures);
+            state.finished = true;
+            state.aborted = true;
+        }
+    }
+
+    /**
+     * Check that a known heavy offset still holds the same quote. A matching id (or a probe that fails
+     * with the content limit too) is skipped without fetching the full quote. A probe returning another id
+     * means the collection has shifted, so the entry is forgotten; in that case, as after any other probe
+     * failure, the offset is fetched normally.
+     */
+    private void handleHeavyCheck(Segment segment, PageOutcome probe, WalkState state) {
+        HeavyQuote heavy = segment.heavy();
+        boolean expired = heavy.learnedAt().plus(Duration.ofMinutes(heavyTtlMinutes)).isBefore(Instant.now());
+
+        if (!expired && probe.failed() && isContentLengthError(probe.error())) {
+            state.skippedQuotes++;
+            log.debug("Skipping known heavy quote at offset {} (id: {})", segment.offset(), heavy.id());
+            state.offset += 1;
+            return;
+        }
+        if (!probe.failed() && (probe.quotes() == null || probe.quotes().length == 0)) {
+            state.finished = true;
+            return;
+        }
+        if (!expired && !probe.failed() && heavy.id() != null && heavy.id().equals(probe.quotes()[0].getId())) {
+            state.skippedQuotes++;
+            log.debug("Skipping known heavy quote {} at offset {}", heavy.id(), segment.offset());
+            state.offset += 1;
+            return;
+        }
+
+        if (expired || !probe.failed()) {
+            log.debug("Known heavy quote at offset {} moved or expired, fetching offset normally", segment.offset());
+            forgetHeavyQuote(state, segment.offset());
+        } else {
+            log.debug("Check of known heavy quote at offset {} failed ({}), fetching offset normally",
+                    segment.offset(), probe.error().getMessage());
+        }
+        PageOutcome single = fetchPageAsync(state, segment.offset(), 1).join();
+        if (single.failed()) {
+            handleFailedPage(single, state);
+        } else {
+            handlePage(single, state);
+        }
+    }
+
+    private void rememberHeavyQuote(WalkState state, int offset) {
+        String id = null;
+        PageOutcome probe = fetchIdProjectionAsync(state, offset).join();
+        if (!probe.failed() && probe.quotes() != null && probe.quotes().length > 0) {
+            id = probe.quotes()[0].getId();
+        }
+        state.heavyQuotes.put(offset, new HeavyQuote(id, Instant.now()));
+        if (id != null) {
+            heavyQuoteIds.add(id);
+        }
+        log.info("Remembered heavy quote at offset {} (id: {}) for {}", offset, id != null ? id : "unknown", state.baseUrl);
+    }
+
+    private void forgetHeavyQuote(WalkState state, int offset) {
+        HeavyQuote removed = state.heavyQuotes.remove(offset);
+        if (removed != null && removed.id() != null && !isStillTracked(removed.id())) {
+            heavyQuoteIds.remove(removed.id());
+            log.info("Forgot heavy quote {} previously at offset {} for {}", removed.id(), offset, state.baseUrl);
+        }
+    }
+
+    private boolean isStillTracked(String quoteId) {
+        synchronized (heavyQuotesByQuery) {
+            return heavyQuotesByQuery.values().stream()
+                .flatMap(offsets -> offsets.values().stream())
+                .anyMatch(heavy -> quoteId.equals(heavy.id()));
+        }
+    }
+
+    private NavigableMap<Integer, HeavyQuote> heavyQuotesFor(String baseUrl, Map<String, String> queryParams) {
+        String signature = baseUrl + (queryParams != null ? new TreeMap<>(queryParams).toString() : "{}");
+        return heavyQuotesByQuery.computeIfAbsent(signature, key -> new ConcurrentSkipListMap<>());
+    }
+
+    private void increasePageSize() {
+        int ceiling = Math.max(1, maxPageSize);
+        int step = Math.max(0, increaseStep);
+        learnedPageSize.updateAndGet(size -> Math.min(ceiling, size + step));
+    }
+
+    private void decreasePageSize(int failedLimit) {
+        int updated = learnedPageSize.updateAndGet(size -> Math.max(1, Math.min(size, failedLimit) / 2));
+        log.info("Content length exceeded with pageSize {}. Reducing page size to {}", failedLimit, updated);
+    }
+
+    private CompletableFuture<PageOutcome> fetchPageAsync(WalkState state, int offset, int limit) {
+        return fetchAsync(state, offset, limit, null);
+    }
+
+    /**
+     * Fetch a single quote at the given offset projected to its id only ({@code fields=id}).
+     */
+    private CompletableFuture<PageOutcome> fetchIdProjectionAsync(WalkState state, int offset) {
+        return fetchAsync(state, offset, 1, "id");
+    }
+
+    private CompletableFuture<PageOutcome> fetchAsync(WalkState state, int offset, int limit, String fields) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return new PageOutcome(offset, limit, fetchPage(state, offset, limit, fields), null);
+            } catch (Exception e) {
+                return new PageOutcome(offset, limit, null, e);
+            }
+        }, pageExecutor);
+    }
+
+    private QuoteDTO[] fetchPage(WalkState state, int offset, int limit, String fields) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(state.baseUrl)
+            .queryParam("limit", limit)
+            .queryParam("offset", offset);
+
+        if (fields != null) {
+            builder.queryParam("fields", fields);
+        }
+        if (state.queryParams != null) {
+            state.queryParams.forEach(builder::queryParam);
+        }
+
+        String url = builder.build(true).toUriString();
+        log.debug("Fetching quotes (offset={}, limit={}): {}", offset, limit, url);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), QuoteDTO[].class).getBody();
+    }
+
+    private boolean isContentLengthError(Exception e) {
+        String errorMessage = e.getMessage() != null ? e.getMessage().toLowerCase() : "";
+        if (errorMessage.contains("contentlength")
+                || errorMessage.contains("content length")
+                || errorMessage.contains("exceeded")
+                || errorMessage.contains("413")) {
+            return true;
+        }
+        if (e instanceof HttpClientErrorException) {
+            return ((HttpClientErrorException) e).getStatusCode().value() == 413;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,523 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.config.AppConfig;
+import com.dome.quotemanagement.dto.tmforum.QuoteDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory read model of every TMForum quote, used to serve the list endpoints without a remote crawl.
+ *
+ * The model is loaded by a full crawl right after startup and reconciled by a periodic crawl
+ * (quote.read-model.refresh-interval-ms); only quotes that actually changed are replaced. TMForum quotes
+ * carry no lastUpdate, so change detection compares the crawled document with the stored one.
+ *
+ * Writes made through this service are applied immediately (write-through) and win over any crawl that
+ * started before them, so clients always read their own writes. Until the first crawl completes
+ * isReady() returns false and callers must query TMForum directly.
+ *
+ * The model maintains QuoteIndex secondary indexes (party and role, category, externalId), so user listings
+ * are answered in time proportional to the result instead of scanning every quote.
+ *
+ * Every change is also persisted through QuoteStore (quote.read-model.persistence.enabled), and a restarted
+ * instance serves the persisted quotes until its first crawl has reconciled them. Consumers that act on quotes
+ * rather than list them wait for hasCrawled().
+ *
+ * Returned quotes are shared with the model and must not be modified.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QuoteReadModel {
+
+    private final QuotePaginationEngine quotePaginationEngine;
+    private final AppConfig appConfig;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final QuoteStore quoteStore;
+
+    @Value("${tmforum.api.base-url}")
+    private String tmforumBaseUrl;
+
+    @Value("${quote.read-model.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Notified after quotes changed in the model, outside of its lock.
+     */
+    public interface QuoteChangeListener {
+
+        /**
+         * @param quote the quote as now stored (added or changed)
+         */
+        void onQuoteChanged(QuoteDTO quote);
+
+        /**
+         * @param quoteId the id of a quote no longer in the model
+         */
+        void onQuoteRemoved(String quoteId);
+    }
+
+    /**
+     * A stored quote with its position in the upstream listing order.
+     */
+    private record Entry(QuoteDTO quote, long position) {}
+
+    private final Map<String, Entry> quotes = new ConcurrentHashMap<>();
+
+    /** Logical time of the last local write per quote id (deletions included), until a later crawl confirms it. */
+    private final Map<String, Long> localWrites = new ConcurrentHashMap<>();
+
+    /** Secondary indexes over the stored quotes. Guarded by lock. */
+    private final QuoteIndex index = new QuoteIndex();
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<QuoteChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /** Serializes persistence so the latest state of a quote is always written last. */
+    private final Object persistLock = new Object();
+
+    /** Quotes in listing order, rebuilt lazily after a change. */
+    private volatile List<QuoteDTO> orderedSnapshot;
+
+    private volatile boolean ready;
+    /** Whether a crawl of TMForum completed since startup; a warm start alone does not set it. */
+    private volatile boolean crawled;
+    /** Whether the last crawl reached the end of the collection without skipping any quote. */
+    private volatile boolean lastCrawlComplete;
+    private volatile Instant lastRefresh;
+
+    /** Position assigned to quotes created locally, after every crawled quote. Guarded by lock. */
+    private long nextLocalPosition;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("quote.read-model.size", quotes, Map::size)
+            .description("Number of quotes held in the in-memory read model")
+            .register(meterRegistry);
+        Gauge.builder("quote.read-model.age.seconds", this, model -> model.lastRefresh == null
+                ? Double.NaN
+                : Duration.between(model.lastRefresh, Instant.now()).toSeconds())
+            .description("Seconds since the read model was last reconciled with TMForum")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Register a listener notified of every later change. Quotes already in the model are not replayed.
+     * @param listener the listener
+     */
+    public void addListener(QuoteChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @return true once the model has been loaded and can answer list queries
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * @return true once a crawl of TMForum has completed since startup. Until then a ready model may only hold
+     *         the persisted quotes of the warm start, which can be arbitrarily old.
+     */
+    public boolean hasCrawled() {
+        return enabled && crawled;
+    }
+
+    /**
+     * @return true if the last crawl reached the end of the collection without skipping any (oversized) quote,
+     *         so the model then held every TMForum quote
+     */
+    public boolean isLastCrawlComplete() {
+        return lastCrawlComplete;
+    }
+
+    /**
+     * @return when the last crawl completed, null before the first one
+     */
+    public Instant getLastRefresh() {
+        return lastRefresh;
+    }
+
+    /**
+     * @return all quotes, in the order TMForum lists them
+     */
+    public List<QuoteDTO> findAll() {
+        List<QuoteDTO> snapshot = orderedSnapshot;
+        if (snapshot == null) {
+            // Rebuilt under the write lock so a concurrent write cannot be hidden by a stale snapshot
+            lock.writeLock().lock();
+            try {
+                snapshot = orderedSnapshot;
+                if (snapshot == null) {
+                    snapshot = inListingOrder(quotes.values());
+                    orderedSnapshot = snapshot;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Find the quotes of a party using the secondary indexes.
+     * @param partyId the related party id
+     * @param role the party role (case-insensitive), or null for any role
+     * @param category the quote category (case-insensitive)
+     * @param externalId the external id to match, or null for any
+     * @return the matching quotes, in the order TMForum lists them
+     */
+    public List<QuoteDTO> findByParty(String partyId, String role, String category, String externalId) {
+        lock.readLock().lock();
+        try {
+            Set<String> quoteIds = externalId != null
+                ? QuoteIndex.intersect(index.byParty(partyId, role), index.byCategory(category), index.byExternalId(externalId))
+                : QuoteIndex.intersect(index.byParty(partyId, role), index.byCategory(category));
+            return inListingOrder(quoteIds.stream().map(quotes::get).filter(Objects::nonNull).collect(Collectors.toList()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param externalId the external id, e.g. a coordinator quote id
+     * @return the quotes carrying that external id, in the order TMForum lists them
+     */
+    public List<QuoteDTO> findByExternalId(String externalId) {
+        lock.readLock().lock();
+        try {
+            return inListingOrder(index.byExternalId(externalId).stream()
+                .map(quotes::get).filter(Objects::nonNull).collect(Collectors.toList()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param quoteId the quote id
+     * @return the stored quote, if known
+     */
+    public Optional<QuoteDTO> get(String quoteId) {
+        Entry entry = quoteId != null ? quotes.get(quoteId) : null;
+        return entry != null ? Optional.of(entry.quote()) : Optional.empty();
+    }
+
+    /**
+     * Store a complete quote returned by TMForum (e.g. the response of a create).
+     * @param quote the quote
+     */
+    public void put(QuoteDTO quote) {
+        if (!enabled || quote == null || quote.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            localWrites.put(quote.getId(), clock.incrementAndGet());
+            store(quote);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publish(List.of(quote.getId()));
+    }
+
+    /**
+     * Apply a PATCH response. Attributes missing from the response keep their stored value,
+     * since TMForum may not echo every attribute (e.g. relatedParty) back.
+     * @param patched the quote returned by the PATCH
+     */
+    public void merge(QuoteDTO patched) {
+        if (!enabled || patched == null || patched.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            localWrites.put(patched.getId(), clock.incrementAndGet());
+            Entry existing = quotes.get(patched.getId());
+            if (existing == null) {
+                store(patched);
+                return;
+            }
+            try {
+                ObjectNode merged = objectMapper.valueToTree(existing.quote());
+                merged.setAll((ObjectNode) objectMapper.valueToTree(patched));
+                store(objectMapper.treeToValue(merged, QuoteDTO.class));
+            } catch (Exception e) {
+                log.warn("Could not merge PATCH response for quote {} into read model, storing it as is: {}",
+                    patched.getId(), e.getMessage());
+                store(patched);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publish(List.of(patched.getId()));
+    }
+
+    /**
+     * Forget a deleted quote.
+     * @param quoteId the quote id
+     */
+    public void remove(String quoteId) {
+        if (!enabled || quoteId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            localWrites.put(quoteId, clock.incrementAndGet());
+            if (quotes.remove(quoteId) != null) {
+                index.remove(quoteId);
+                orderedSnapshot = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publish(List.of(quoteId));
+    }
+
+    /**
+     * Reconcile the model with a full crawl of TMForum. The first run warm-starts the model from
+     * the persisted quotes, if any, before crawling.
+     */
+    @Scheduled(initialDelayString = "${quote.read-model.initial-delay-ms:0}",
+               fixedDelayString = "${quote.read-model.refresh-interval-ms:60000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        if (!ready) {
+            warmStart();
+        }
+        String baseUrl = tmforumBaseUrl.trim() + appConfig.getTmforumQuoteEndpoint();
+        long crawlStartedAt = clock.get();
+        long start = System.currentTimeMillis();
+
+        QuotePaginationEngine.PaginationResult result;
+        try {
+            result = quotePaginationEngine.walk(baseUrl, null);
+        } catch (Exception e) {
+            log.error("Read model refresh failed, keeping {} quotes from the previous crawl: {}", quotes.size(), e.getMessage());
+            return;
+        }
+
+        Set<String> dirty = new HashSet<>();
+        lock.writeLock().lock();
+        try {
+            int added = 0;
+            int changed = 0;
+            int removed = 0;
+            Set<String> seen = new HashSet<>();
+            long position = 0;
+
+            for (QuoteDTO quote : result.quotes()) {
+                if (quote == null || quote.getId() == null || !seen.add(quote.getId())) {
+                    continue;
+                }
+                long quotePosition = position++;
+                Entry existing = quotes.get(quote.getId());
+                if (isWrittenSince(quote.getId(), crawlStartedAt)) {
+                    // A local write happened during the crawl: keep it, only refresh the listing position
+                    if (existing != null && existing.position() != quotePosition) {
+                        quotes.put(quote.getId(), new Entry(existing.quote(), quotePosition));
+                        orderedSnapshot = null;
+                    }
+                    continue;
+                }
+                if (existing == null) {
+                    added++;
+                } else if (!existing.quote().equals(quote)) {
+                    changed++;
+                } else if (existing.position() == quotePosition) {
+                    continue;
+                }
+                quotes.put(quote.getId(), new Entry(quote, quotePosition));
+                index.add(quote);
+                orderedSnapshot = null;
+                if (existing == null || !existing.quote().equals(quote)) {
+                    dirty.add(quote.getId());
+                }
+            }
+
+            // Only a crawl that reached the end of the collection without skipping any quote proves that a quote
+            // is gone: a skipped (oversized) quote is missing from the crawl but still exists upstream
+            if (result.complete() && result.skippedQuotes() == 0) {
+                for (String quoteId : List.copyOf(quotes.keySet())) {
+                    if (!seen.contains(quoteId) && !isWrittenSince(quoteId, crawlStartedAt)) {
+                        quotes.remove(quoteId);
+                        index.remove(quoteId);
+                        dirty.add(quoteId);
+                        removed++;
+                        orderedSnapshot = null;
+                    }
+                }
+            } else if (!result.complete()) {
+                log.warn("Read model refresh stopped before the end of the collection, no quote removed");
+            } else {
+                log.warn("Read model refresh skipped {} quotes, no quote removed", result.skippedQuotes());
+            }
+
+            nextLocalPosition = Math.max(nextLocalPosition, position);
+            localWrites.values().removeIf(writtenAt -> writtenAt <= crawlStartedAt);
+            lastCrawlComplete = result.complete() && result.skippedQuotes() == 0;
+            lastRefresh = Instant.now();
+            crawled = true;
+            if (!ready) {
+                ready = true;
+                log.info("Read model loaded with {} quotes in {} ms", quotes.size(), System.currentTimeMillis() - start);
+            } else {
+                log.info("Read model refreshed in {} ms: {} added, {} changed, {} removed, {} total",
+                    System.currentTimeMillis() - start, added, changed, removed, quotes.size());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // Listing positions that merely shifted are not persisted, the next warm start only needs an approximate order
+        publish(dirty);
+    }
+
+    /**
+     * Load the persisted quotes so listings can be served before the first crawl completes.
+     */
+    private void warmStart() {
+        if (!quoteStore.isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<QuoteStore.StoredQuote> stored;
+        try {
+            stored = quoteStore.loadAll();
+        } catch (Exception e) {
+            log.warn("Could not load persisted quotes, waiting for the first crawl: {}", e.getMessage());
+            return;
+        }
+        if (stored.isEmpty()) {
+            return;
+        }
+        List<String> loadedIds = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            for (QuoteStore.StoredQuote storedQuote : stored) {
+                String quoteId = storedQuote.quote().getId();
+                // Writes made since startup are newer than anything persisted
+                if (quoteId != null && !quotes.containsKey(quoteId) && !localWrites.containsKey(quoteId)) {
+                    quotes.put(quoteId, new Entry(storedQuote.quote(), storedQuote.position()));
+                    index.add(storedQuote.quote());
+                    loadedIds.add(quoteId);
+                }
+                nextLocalPosition = Math.max(nextLocalPosition, storedQuote.position() + 1);
+            }
+            orderedSnapshot = null;
+            ready = true;
+            log.info("Read model warm-started with {} persisted quotes in {} ms", quotes.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        notifyListeners(loadedIds);
+    }
+
+    /**
+     * Persist and announce changes made to the given quotes.
+     */
+    private void publish(Collection<String> quoteIds) {
+        persist(quoteIds);
+        notifyListeners(quoteIds);
+    }
+
+    private void notifyListeners(Collection<String> quoteIds) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        for (String quoteId : quoteIds) {
+            Entry entry = quotes.get(quoteId);
+            for (QuoteChangeListener listener : listeners) {
+                try {
+                    if (entry != null) {
+                        listener.onQuoteChanged(entry.quote());
+                    } else {
+                        listener.onQuoteRemoved(quoteId);
+                    }
+                } catch (Exception e) {
+                    log.warn("Read model listener failed for quote {}: {}", quoteId, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the current state of the given quotes to the store: stored quotes are upserted, missing ones deleted.
+     * Failures are logged, the in-memory model stays authoritative.
+     */
+    private void persist(Collection<String> quoteIds) {
+        if (!quoteStore.isEnabled() || quoteIds.isEmpty()) {
+            return;
+        }
+        synchronized (persistLock) {
+            List<QuoteStore.StoredQuote> upserts = new ArrayList<>();
+            List<String> deletedIds = new ArrayList<>();
+            for (String quoteId : quoteIds) {
+                Entry entry = quotes.get(quoteId);
+                if (entry != null) {
+                    upserts.add(new QuoteStore.StoredQuote(entry.quote(), entry.position()));
+                } else {
+                    deletedIds.add(quoteId);
+                }
+            }
+            try {
+                quoteStore.apply(upserts, deletedIds);
+            } catch (Exception e) {
+                log.warn("Could not persist {} read model changes: {}", quoteIds.size(), e.getMessage());
+            }
+        }
+    }
+
+    private boolean isWrittenSince(String quoteId, long crawlStartedAt) {
+        Long writtenAt = localWrites.get(quoteId);
+        return writtenAt != null && writtenAt > crawlStartedAt;
+    }
+
+    /**
+     * Store a quote, keeping its listing position or appending it after the known quotes. Called under the write lock.
+     */
+    private void store(QuoteDTO quote) {
+        Entry existing = quotes.get(quote.getId());
+        long position = existing != null ? existing.position() : nextLocalPosition++;
+        quotes.put(quote.getId(), new Entry(quote, position));
+        index.add(quote);
+        orderedSnapshot = null;
+    }
+
+    private static List<QuoteDTO> inListingOrder(Collection<Entry> entries) {
+        return entries.stream()
+            .sorted(Comparator.comparingLong(Entry::position).thenComparing(entry -> entry.quote().getId()))
+            .map(Entry::quote)
+            .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+    }
+}
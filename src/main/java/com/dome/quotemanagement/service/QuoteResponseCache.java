@@ -0,0 +1,167 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.config.AppConfig;
+import com.dome.quotemanagement.dto.tmforum.QuoteDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches single quotes read from TMForum (GET quote/{id}), so the reads of one workflow (the lookup before
+ * a mutation, the attachment verification loop) do not download and parse the quote again each time.
+ *
+ * A cached quote is served as is for a short TTL. After that, or when the caller asks for revalidation,
+ * it is revalidated with If-None-Match (or If-Modified-Since) when TMForum sent an ETag (or Last-Modified),
+ * so an unchanged quote costs a 304; without validators it is fetched again. A quote is dropped whenever
+ * the read model learns it changed, which includes our own PATCH responses; PATCH responses are not cached
+ * themselves since TMForum may not echo every attribute. Returned quotes are shared with the cache and must
+ * not be modified. Cache statistics are exposed as cache.* metrics with cache=quote-response, revalidations
+ * as quote.response.revalidation{outcome=not-modified|modified}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QuoteResponseCache implements QuoteReadModel.QuoteChangeListener {
+
+    static final String CACHE_NAME = "quote-response";
+
+    private final RestTemplate restTemplate;
+    private final AppConfig appConfig;
+    private final QuoteReadModel quoteReadModel;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${tmforum.api.base-url}")
+    private String tmforumBaseUrl;
+
+    @Value("${quote.response-cache.ttl-ms:2000}")
+    private long ttlMs;
+
+    @Value("${quote.response-cache.retention-minutes:10}")
+    private long retentionMinutes;
+
+    @Value("${quote.response-cache.max-size:1000}")
+    private long maxSize;
+
+    /**
+     * A cached quote with its validators.
+     * @param validatedAtNanos when the quote was last fetched or confirmed unchanged
+     */
+    private record Entry(QuoteDTO quote, String etag, String lastModified, long validatedAtNanos) {}
+
+    private Cache<String, Entry> entries;
+
+    /** Bumped by every invalidation, so a fetch that raced with one does not store what it read. */
+    private long generation;
+
+    @PostConstruct
+    void init() {
+        entries = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMinutes(retentionMinutes))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, CACHE_NAME);
+        quoteReadModel.addListener(this);
+    }
+
+    /**
+     * Read a quote, from the cache while within the TTL.
+     * @param quoteId the quote id
+     * @return the quote, null if TMForum returned no body
+     */
+    public QuoteDTO get(String quoteId) {
+        return get(quoteId, false);
+    }
+
+    /**
+     * Read a quote, always checking with TMForum that the cached copy is current.
+     * @param quoteId the quote id
+     * @return the quote, null if TMForum returned no body
+     */
+    public QuoteDTO revalidate(String quoteId) {
+        return get(quoteId, true);
+    }
+
+    private QuoteDTO get(String quoteId, boolean forceRevalidation) {
+        Entry cached = entries.getIfPresent(quoteId);
+        long now = System.nanoTime();
+        if (cached != null && !forceRevalidation && now - cached.validatedAtNanos() < TimeUnit.MILLISECONDS.toNanos(ttlMs)) {
+            log.debug("Serving quote {} from the response cache", quoteId);
+            return cached.quote();
+        }
+
+        long fetchGeneration = currentGeneration();
+        String url = tmforumBaseUrl.trim() + appConfig.getTmforumQuoteEndpoint() + "/" + quoteId;
+        log.debug("Calling external TMForum API: {}", url);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        if (cached != null && cached.etag() != null) {
+            headers.setIfNoneMatch(cached.etag());
+        } else if (cached != null && cached.lastModified() != null) {
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+        }
+        ResponseEntity<QuoteDTO> response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), QuoteDTO.class);
+
+        if (cached != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            log.debug("Quote {} not modified since it was cached", quoteId);
+            meterRegistry.counter("quote.response.revalidation", "outcome", "not-modified").increment();
+            store(quoteId, new Entry(cached.quote(), cached.etag(), cached.lastModified(), System.nanoTime()), fetchGeneration);
+            return cached.quote();
+        }
+        if (cached != null) {
+            meterRegistry.counter("quote.response.revalidation", "outcome", "modified").increment();
+        }
+        QuoteDTO quote = response.getBody();
+        if (quote != null) {
+            store(quoteId, new Entry(quote, response.getHeaders().getETag(),
+                response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED), System.nanoTime()), fetchGeneration);
+        }
+        return quote;
+    }
+
+    /**
+     * Drop a cached quote.
+     * @param quoteId the quote id
+     */
+    public synchronized void invalidate(String quoteId) {
+        generation++;
+        entries.invalidate(quoteId);
+    }
+
+    @Override
+    public void onQuoteChanged(QuoteDTO quote) {
+        invalidate(quote.getId());
+    }
+
+    @Override
+    public void onQuoteRemoved(String quoteId) {
+        invalidate(quoteId);
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+
+    private synchronized void store(String quoteId, Entry entry, long fetchGeneration) {
+        if (generation == fetchGeneration) {
+            entries.put(quoteId, entry);
+        }
+    }
+}
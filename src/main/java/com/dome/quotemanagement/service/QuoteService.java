@@ -1,5 +1,6 @@
 package com.dome.quotemanagement.service;
 
+import com.dome.quotemanagement.dto.AttachmentOperationDTO;
 import com.dome.quotemanagement.dto.tmforum.QuoteDTO;
 import org.springframework.web.multipart.MultipartFile;
 import java.util.List;
@@ -17,6 +18,8 @@ public interface QuoteService {
     Optional<QuoteDTO> updateQuoteStatus(String quoteId, String statusValue);
     Optional<QuoteDTO> updateQuoteNote(String quoteId, String userId, String messageContent);
     Optional<QuoteDTO> updateQuoteAttachment(String quoteId, MultipartFile file, String description);
+    Optional<AttachmentOperationDTO> submitQuoteAttachment(String quoteId, MultipartFile file, String description, boolean respondAsync);
+    Optional<AttachmentOperationDTO> findAttachmentOperation(String operationId);
     Optional<QuoteDTO> removeQuoteAttachment(String quoteId);
     Optional<QuoteDTO> updateQuoteDate(String quoteId, String date, String dateType);
     void delete(String id);
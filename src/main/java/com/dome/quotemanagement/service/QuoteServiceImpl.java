@@ -2,17 +2,19 @@ package com.dome.quotemanagement.service;
 
 import com.dome.quotemanagement.config.AppConfig;
 import com.dome.quotemanagement.dto.tmforum.AttachmentRefOrValueDTO;
-import com.dome.quotemanagement.dto.tmforum.DocumentSpecificationDTO;
 import com.dome.quotemanagement.util.EmailConstants;
 import com.dome.quotemanagement.dto.tmforum.QuoteDTO;
 import com.dome.quotemanagement.dto.tmforum.QuoteItemDTO;
 import com.dome.quotemanagement.dto.tmforum.NoteDTO;
+import com.dome.quotemanagement.dto.AttachmentOperationDTO;
 import com.dome.quotemanagement.dto.NotificationRequestDTO;
+import com.dome.quotemanagement.entity.DocumentDeletionEntity;
 import com.dome.quotemanagement.enums.QuoteRole;
+import com.dome.quotemanagement.enums.QuoteStatus;
 import com.dome.quotemanagement.exception.QuoteManagementException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -27,9 +29,18 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import java.util.Collections;
@@ -38,7 +49,6 @@ import com.fasterxml.jackson.databind.JsonNode;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class QuoteServiceImpl implements QuoteService {
     
     private final RestTemplate restTemplate;
@@ -46,249 +56,81 @@ public class QuoteServiceImpl implements QuoteService {
     private final NotificationService notificationService;
     private final DocumentService documentService;
     private final AppConfig appConfig;
+    private final QuotePaginationEngine quotePaginationEngine;
+    private final QuoteReadModel quoteReadModel;
+    private final OrganizationResolver organizationResolver;
+    private final ProductOfferingResolver productOfferingResolver;
+    private final NotificationTemplates notificationTemplates;
+    private final QuoteResponseCache quoteResponseCache;
+    private final AttachmentVerifier attachmentVerifier;
+    private final AttachmentSpool attachmentSpool;
+    private final DocumentCollector documentCollector;
+    private final Executor createLookupExecutor;
 
-    private static final long MAX_ATTACHMENT_SIZE_BYTES = 10L * 1024 * 1024;
     private static final String DOCUMENT_SPECIFICATION_URN_PREFIX = "urn:ngsi-ld:document-specification:";
     
-    /**
-     * Record to hold SellerOperator information from ProductOffering
-     */
-    private record SellerOperatorInfo(String id, String href, String name) {}
-    
-    /**
-     * Record to hold Seller information from ProductOffering
-     */
-    private record SellerInfo(String id, String href, String name) {}
-    
     @Value("${tmforum.api.base-url}")
     private String tmforumBaseUrl;
     
+    @Value("${quote.create.lookup-timeout-ms:10000}")
+    private long createLookupTimeoutMs;
+
     @Value("${attachment.verification.enabled:true}")
     private boolean attachmentVerificationEnabled;
     
-    @Value("${attachment.verification.max-attempts:5}")
-    private int attachmentVerificationMaxAttempts;
+    @Value("${attachment.verification.mode:sync}")
+    private String attachmentVerificationMode;
     
-    @Value("${attachment.verification.delay-ms:1000}")
-    private int attachmentVerificationDelayMs;
-    
-    @Value("${quote.pagination.page-size:10}")
-    private int paginationPageSize;
+    @Value("${attachment.deduplication.enabled:true}")
+    private boolean attachmentDeduplicationEnabled;
     
+    public QuoteServiceImpl(RestTemplate restTemplate,
+                            ObjectMapper objectMapper,
+                            NotificationService notificationService,
+                            DocumentService documentService,
+                            AppConfig appConfig,
+                            QuotePaginationEngine quotePaginationEngine,
+                            QuoteReadModel quoteReadModel,
+                            OrganizationResolver organizationResolver,
+                            ProductOfferingResolver productOfferingResolver,
+                            NotificationTemplates notificationTemplates,
+                            QuoteResponseCache quoteResponseCache,
+                            AttachmentVerifier attachmentVerifier,
+                            AttachmentSpool attachmentSpool,
+                            DocumentCollector documentCollector,
+                            @Qualifier("createLookupExecutor") Executor createLookupExecutor) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.notificationService = notificationService;
+        this.documentService = documentService;
+        this.appConfig = appConfig;
+        this.quotePaginationEngine = quotePaginationEngine;
+        this.quoteReadModel = quoteReadModel;
+        this.organizationResolver = organizationResolver;
+        this.productOfferingResolver = productOfferingResolver;
+        this.notificationTemplates = notificationTemplates;
+        this.quoteResponseCache = quoteResponseCache;
+        this.attachmentVerifier = attachmentVerifier;
+        this.attachmentSpool = attachmentSpool;
+        this.documentCollector = documentCollector;
+        this.createLookupExecutor = createLookupExecutor;
+    }
+
     @Override
     public List<QuoteDTO> findAllQuotes() {
         // Use pagination to avoid ContentLengthExceededException when quotes have heavy attachments
-        // Fetch quotes in smaller batches to stay under the 10MB limit
-        int pageSize = paginationPageSize; // Small page size to handle heavy quotes with attachments
-        int offset = 0;
-        List<QuoteDTO> allQuotes = new java.util.ArrayList<>();
-        
+        // Pages are fetched concurrently in small batches to stay under the 10MB limit
+        if (quoteReadModel.isReady()) {
+            List<QuoteDTO> quotes = quoteReadModel.findAll();
+            log.debug("Serving {} quotes from the read model", quotes.size());
+            return quotes;
+        }
+
         String baseUrl = tmforumBaseUrl.trim() + appConfig.getTmforumQuoteEndpoint();
         log.debug("Calling external TMForum API to get all quotes with pagination: {}", baseUrl);
         
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
-            
-            boolean hasMore = true;
-            int pageNumber = 0;
-            int consecutiveFailures = 0;
-            int skippedQuotes = 0;
-            final int MAX_CONSECUTIVE_FAILURES = 3; // Stop after 3 consecutive failures
-            
-            while (hasMore) {
-                try {
-                    // Build URL with pagination parameters
-                    String url = UriComponentsBuilder.fromHttpUrl(baseUrl)
-                        .queryParam("limit", pageSize)
-                        .queryParam("offset", offset)
-                        .build(true)
-                        .toUriString();
-                    
-                    log.debug("Fetching quotes page {} (offset={}, limit={}): {}", pageNumber + 1, offset, pageSize, url);
-                    
-                    HttpEntity<?> request = new HttpEntity<>(headers);
-                    
-                    var response = restTemplate.exchange(
-                        url,
-                        HttpMethod.GET,
-                        request,
-                        QuoteDTO[].class
-                    );
-                    
-                    QuoteDTO[] quotes = response.getBody();
-                    
-                    // Reset failure counter on success
-                    consecutiveFailures = 0;
-                    
-                    if (quotes == null || quotes.length == 0) {
-                        hasMore = false;
-                        log.debug("No more quotes found at page {}", pageNumber + 1);
-                    } else {
-                        allQuotes.addAll(Arrays.asList(quotes));
-                        log.debug("Retrieved {} quotes from page {} (total so far: {})", quotes.length, pageNumber + 1, allQuotes.size());
-                        
-                        // If we got fewer quotes than the page size, we've reached the end
-                        if (quotes.length < pageSize) {
-                            hasMore = false;
-                            log.debug("Reached end of quotes (got {} quotes, expected {})", quotes.length, pageSize);
-                        } else {
-                            // Move to next page
-                            offset += pageSize;
-                            pageNumber++;
-                        }
-                    }
-                } catch (org.springframework.web.client.HttpClientErrorException | 
-                         org.springframework.web.client.HttpServerErrorException e) {
-                    // Check if it's a content length exceeded error (usually 413 or 500 with specific message)
-                    String errorMessage = e.getMessage() != null ? e.getMessage().toLowerCase() : "";
-                    boolean isContentLengthError = errorMessage.contains("contentlength") || 
-                                                   errorMessage.contains("content length") ||
-                                                   errorMessage.contains("413") ||
-                                                   (e.getStatusCode() != null && e.getStatusCode().value() == 413);
-                    
-                    if (isContentLengthError || pageSize > 1) {
-                        // If we get a content length error or any error with pageSize > 1, try with pageSize = 1
-                        log.warn("Error fetching page {} with pageSize {}: {}. Trying with pageSize=1 for this page.", 
-                                pageNumber + 1, pageSize, e.getMessage());
-                        
-                        try {
-                            // Try fetching just one quote at a time for this page
-                            String singleQuoteUrl = UriComponentsBuilder.fromHttpUrl(baseUrl)
-                                .queryParam("limit", 1)
-                                .queryParam("offset", offset)
-                                .build(true)
-                                .toUriString();
-                            
-                            log.debug("Retrying with single quote: {}", singleQuoteUrl);
-                            
-                            HttpEntity<?> singleRequest = new HttpEntity<>(headers);
-                            var singleResponse = restTemplate.exchange(
-                                singleQuoteUrl,
-                                HttpMethod.GET,
-                                singleRequest,
-                                QuoteDTO[].class
-                            );
-                            
-                            QuoteDTO[] singleQuotes = singleResponse.getBody();
-                            if (singleQuotes != null && singleQuotes.length > 0) {
-                                allQuotes.addAll(Arrays.asList(singleQuotes));
-                                log.info("Successfully retrieved 1 quote individually (total so far: {})", allQuotes.size());
-                                
-                                // Move to next quote
-                                offset += 1;
-                                pageNumber++;
-                                consecutiveFailures = 0;
-                                
-                                // Continue with normal page size for next iteration
-                                continue;
-                            } else {
-                                // No quotes returned, we've reached the end
-                                hasMore = false;
-                                log.debug("No quotes returned with pageSize=1, reached end");
-                                break;
-                            }
-                        } catch (Exception singleException) {
-                            // Even single quote failed - this quote is too large, skip it
-                            skippedQuotes++;
-                            log.error("Even single quote fetch failed at offset {}: {}. Skipping this quote (too large, likely >10MB attachment) and continuing. Total skipped: {}", 
-                                    offset, singleException.getMessage(), skippedQuotes);
-                            
-                            consecutiveFailures++;
-                            
-                            // Skip this quote and try the next one
-                            offset += 1;
-                            pageNumber++;
-                            
-                            if (consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
-                                log.error("Too many consecutive failures ({}). Stopping pagination to avoid infinite loop.", 
-                                        consecutiveFailures);
-                                hasMore = false;
-                                break;
-                            }
-                        }
-                    } else {
-                        // Other type of error, log and continue
-                        log.error("Error fetching page {}: {}. Skipping this page.", pageNumber + 1, e.getMessage());
-                        consecutiveFailures++;
-                        
-                        // Skip this page
-                        offset += pageSize;
-                        pageNumber++;
-                        
-                        if (consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
-                            log.error("Too many consecutive failures ({}). Stopping pagination.", consecutiveFailures);
-                            hasMore = false;
-                            break;
-                        }
-                    }
-                } catch (Exception e) {
-                    // Generic exception handling
-                    String errorMessage = e.getMessage() != null ? e.getMessage().toLowerCase() : "";
-                    boolean isContentLengthError = errorMessage.contains("contentlength") || 
-                                                   errorMessage.contains("content length") ||
-                                                   errorMessage.contains("exceeded");
-                    
-                    if (isContentLengthError && pageSize > 1) {
-                        // Try with pageSize = 1
-                        log.warn("Content length error at page {}: {}. Trying with pageSize=1.", 
-                                pageNumber + 1, e.getMessage());
-                        
-                        try {
-                            String singleQuoteUrl = UriComponentsBuilder.fromHttpUrl(baseUrl)
-                                .queryParam("limit", 1)
-                                .queryParam("offset", offset)
-                                .build(true)
-                                .toUriString();
-                            
-                            HttpEntity<?> singleRequest = new HttpEntity<>(headers);
-                            var singleResponse = restTemplate.exchange(
-                                singleQuoteUrl,
-                                HttpMethod.GET,
-                                singleRequest,
-                                QuoteDTO[].class
-                            );
-                            
-                            QuoteDTO[] singleQuotes = singleResponse.getBody();
-                            if (singleQuotes != null && singleQuotes.length > 0) {
-                                allQuotes.addAll(Arrays.asList(singleQuotes));
-                                offset += 1;
-                                pageNumber++;
-                                consecutiveFailures = 0;
-                                continue;
-                            }
-                        } catch (Exception singleException) {
-                            skippedQuotes++;
-                            log.error("Single quote fetch also failed: {}. Skipping quote at offset {} (too large, likely >10MB attachment). Total skipped: {}", 
-                                    singleException.getMessage(), offset, skippedQuotes);
-                            offset += 1;
-                            pageNumber++;
-                            consecutiveFailures++;
-                        }
-                    } else {
-                        log.error("Unexpected error fetching page {}: {}. Skipping this page.", 
-                                pageNumber + 1, e.getMessage(), e);
-                        consecutiveFailures++;
-                        offset += pageSize;
-                        pageNumber++;
-                    }
-                    
-                    if (consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
-                        log.error("Too many consecutive failures ({}). Stopping pagination.", consecutiveFailures);
-                        hasMore = false;
-                        break;
-                    }
-                }
-            }
-            
-            if (skippedQuotes > 0) {
-                log.warn("Retrieved {} quotes total using pagination ({} pages), but {} quotes were skipped due to size exceeding 10MB limit (likely due to large attachments)", 
-                        allQuotes.size(), pageNumber + 1, skippedQuotes);
-            } else {
-                log.info("Successfully retrieved {} quotes total using pagination ({} pages)", allQuotes.size(), pageNumber + 1);
-            }
-            return allQuotes;
-            
+            return quotePaginationEngine.fetchAll(baseUrl, null);
         } catch (Exception e) {
             log.error("Error calling TMForum API with pagination: {}", e.getMessage(), e);
             // If pagination fails, try fallback to original method with smaller limit
@@ -335,6 +177,12 @@ public class QuoteServiceImpl implements QuoteService {
             return Collections.emptyList();
         }
 
+        if (quoteReadModel.isReady()) {
+            List<QuoteDTO> quotes = quoteReadModel.findByParty(userId, role, "tailored", null);
+            log.info("Found {} tailored quotes for user '{}', role '{}' in the read model", quotes.size(), userId, role);
+            return quotes;
+        }
+
         try {
             // Use pagination helper with server-side filters
             java.util.Map<String, String> queryParams = new java.util.HashMap<>();
@@ -405,6 +253,12 @@ public class QuoteServiceImpl implements QuoteService {
             return Collections.emptyList();
         }
 
+        if (quoteReadModel.isReady()) {
+            List<QuoteDTO> quotes = quoteReadModel.findByParty(userId, role, "tender", filterByExternalId ? externalId : null);
+            log.info("Found {} tender quotes for user '{}', role '{}' in the read model", quotes.size(), userId, role);
+            return quotes;
+        }
+
         try {
             // Use pagination helper with server-side filters
             java.util.Map<String, String> queryParams = new java.util.HashMap<>();
@@ -479,6 +333,15 @@ public class QuoteServiceImpl implements QuoteService {
         log.debug("Base TMForum list API: {}", baseUrl);
         log.debug("Find coordinator quotes parameters - userId: '{}'", userId);
 
+        if (quoteReadModel.isReady()) {
+            // The index matches categories case-insensitively, coordinator listings keep the exact match
+            List<QuoteDTO> quotes = quoteReadModel.findByParty(userId, null, "coordinator", null).stream()
+                .filter(quote -> "coordinator".equals(quote.getCategory()))
+                .collect(Collectors.toList());
+            log.info("Found {} coordinator quotes for user '{}' in the read model", quotes.size(), userId);
+            return quotes;
+        }
+
         try {
             // Use pagination helper with server-side filters
             java.util.Map<String, String> queryParams = new java.util.HashMap<>();
@@ -521,30 +384,23 @@ public class QuoteServiceImpl implements QuoteService {
     
     @Override
     public Optional<QuoteDTO> findById(String id) {
-        String url = tmforumBaseUrl.trim() + appConfig.getTmforumQuoteEndpoint() + "/" + id;
-        log.debug("Calling external TMForum API: {}", url);
+        return findById(id, false);
+    }
+
+    /**
+     * @param revalidate whether to check with TMForum that a cached quote is current, even within the cache TTL.
+     *                   Mutations always revalidate, only the read endpoint is served within the TTL.
+     */
+    private Optional<QuoteDTO> findById(String id, boolean revalidate) {
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
-            HttpEntity<?> request = new HttpEntity<>(headers);
-            
-            var response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                request,
-                QuoteDTO.class
-            );
-            
-            QuoteDTO quote = response.getBody();
-            log.debug("Received quote from TMForum API: {}", quote);
-            
-            // Log the raw response for debugging
-            log.info("Raw response from TMForum API: {}", response.getBody());
+            QuoteDTO quote = revalidate ? quoteResponseCache.revalidate(id) : quoteResponseCache.get(id);
+            // Served from the response cache, fetched or revalidated there only when needed
+            log.debug("Resolved quote {}: {}", id, quote);
             
             // Log related parties details
-            if (quote != null && quote.getRelatedParty() != null) {
+            if (log.isDebugEnabled() && quote != null && quote.getRelatedParty() != null) {
                 quote.getRelatedParty().forEach(party -> {
-                    log.info("Related party details - ID: {}, Role: {}, Type: {}, BaseType: {}, ReferredType: {}", 
+                    log.debug("Related party details - ID: {}, Role: {}, Type: {}, BaseType: {}, ReferredType: {}", 
                         party.getId(), 
                         party.getRole(),
                         party.getType(),
@@ -597,6 +453,7 @@ public class QuoteServiceImpl implements QuoteService {
             log.info("Sending JSON payload to TMForum API: {}", jsonPayload);
             
             QuoteDTO response = restTemplate.postForObject(url, request, QuoteDTO.class);
+            quoteReadModel.put(response);
             log.info("Received response from TMForum API: {}", response);
             
             // Log the related parties from the response
@@ -616,19 +473,19 @@ public class QuoteServiceImpl implements QuoteService {
 
             // Send notification after successful quote creation
             if (response != null && response.getId() != null) {
-                String productName = resolveProductOfferingName(productOfferingId).orElse("N/A");
-                String requesterTradingName = resolveOrganizationTradingName(customerIdRef).orElse(customerIdRef);
-                String messageBody = String.format(EmailConstants.BODY_NEW_QUOTE_CREATED,
+                String productName = productOfferingResolver.resolveName(productOfferingId).orElse("N/A");
+                String requesterTradingName = organizationResolver.resolveTradingName(customerIdRef).orElse(customerIdRef);
+                String messageBody = notificationTemplates.render(NotificationTemplates.Template.NEW_QUOTE_CREATED,
                         productName,
                         requesterTradingName,
                         customerMessage != null ? customerMessage : "");
                 NotificationRequestDTO notification = NotificationRequestDTO.builder()
                     .sender(customerIdRef)
                     .recipient(providerIdRef)
-                    .subject(EmailConstants.SUBJECT_NEW_QUOTE_CREATED)
+                    .subject(notificationTemplates.render(NotificationTemplates.Template.NEW_QUOTE_CREATED_SUBJECT))
                     .message(messageBody)
                     .build();
-                notificationService.sendNotification(notification);
+                notificationService.sendNotification(notification, response.getId(), "created");
             }
             
             return response;
@@ -673,6 +530,7 @@ public class QuoteServiceImpl implements QuoteService {
             log.info("Sending coordinator quote JSON payload to TMForum API: {}", jsonPayload);
             
             QuoteDTO response = restTemplate.postForObject(url, request, QuoteDTO.class);
+            quoteReadModel.put(response);
             log.info("Received coordinator quote response from TMForum API: {}", response);
             
             if (response != null) {
@@ -681,6 +539,9 @@ public class QuoteServiceImpl implements QuoteService {
             
             return response;
             
+        } catch (QuoteManagementException e) {
+            // Propagate QuoteManagementException to preserve HttpStatus
+            throw e;
         } catch (Exception e) {
             log.error("Error creating coordinator quote: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to create coordinator quote", e);
@@ -692,8 +553,8 @@ public class QuoteServiceImpl implements QuoteService {
         log.debug("Updating quote status - quoteId: '{}', statusValue: '{}'", quoteId, statusValue);
         
         try {
-            // First, get the current quote
-            Optional<QuoteDTO> currentQuoteOpt = findById(quoteId);
+            // First, get the current quote, revalidated: the PATCH rewrites whole arrays built from it
+            Optional<QuoteDTO> currentQuoteOpt = findById(quoteId, true);
             if (currentQuoteOpt.isEmpty()) {
                 log.warn("Quote not found with id: {}", quoteId);
                 return Optional.empty();
@@ -722,6 +583,8 @@ public class QuoteServiceImpl implements QuoteService {
                 request, 
                 QuoteDTO.class
             ).getBody();
+            quoteReadModel.merge(updatedQuote);
+            quoteResponseCache.invalidate(quoteId);
             
             log.info("Received updated quote from TMForum API: {}", updatedQuote);
 
@@ -743,8 +606,8 @@ public class QuoteServiceImpl implements QuoteService {
         log.debug("Updating quote note - quoteId: '{}', userId: '{}', messageContent: '{}'", quoteId, userId, messageContent);
         
         try {
-            // First, get the current quote
-            Optional<QuoteDTO> currentQuoteOpt = findById(quoteId);
+            // First, get the current quote, revalidated: the PATCH rewrites whole arrays built from it
+            Optional<QuoteDTO> currentQuoteOpt = findById(quoteId, true);
             if (currentQuoteOpt.isEmpty()) {
                 log.warn("Quote not found with id: {}", quoteId);
                 return Optional.empty();
@@ -773,12 +636,14 @@ public class QuoteServiceImpl implements QuoteService {
                 request, 
                 QuoteDTO.class
             ).getBody();
+            quoteReadModel.merge(updatedQuote);
+            quoteResponseCache.invalidate(quoteId);
             
             log.info("Received updated quote from TMForum API: {}", updatedQuote);
 
-            // Send notification after successful note update
+            // Send notification after successful note update, keyed by this note so no two notes share an event
             if (updatedQuote != null) {
-                sendNoteUpdateNotification(updatedQuote, userId, messageContent);
+                sendNoteUpdateNotification(updatedQuote, userId, messageContent, "note-" + UUID.randomUUID());
             }
             
             return Optional.ofNullable(updatedQuote);
@@ -791,44 +656,50 @@ public class QuoteServiceImpl implements QuoteService {
 
     @Override
     public Optional<QuoteDTO> updateQuoteAttachment(String quoteId, MultipartFile file, String description) {
+        return submitQuoteAttachment(quoteId, file, description, false).map(AttachmentOperationDTO::getQuote);
+    }
+
+    @Override
+    public Optional<AttachmentOperationDTO> submitQuoteAttachment(String quoteId, MultipartFile file, String description,
+                                                                  boolean respondAsync) {
+        boolean verifyAsync = respondAsync || "async".equalsIgnoreCase(attachmentVerificationMode);
         log.debug("Updating quote attachment - quoteId: '{}', filename: '{}', description: '{}'", 
                   quoteId, file.getOriginalFilename(), description);
 
         try {
-            // Validate file
-            if (file.isEmpty()) {
-                throw new IllegalArgumentException("File is empty");
-            }
-            
-            // Validate file type (only PDF allowed)
-            String contentType = file.getContentType();
-            if (!"application/pdf".equals(contentType)) {
-                throw new IllegalArgumentException("Only PDF files are allowed. Received: " + contentType);
-            }
-            
-            // Validate file size (limit to 10MB)
-            if (file.getSize() > MAX_ATTACHMENT_SIZE_BYTES) {
-                throw new IllegalArgumentException("File size exceeds maximum allowed size of 10MB");
-            }
-            
-            // First, get the current quote
-            Optional<QuoteDTO> currentQuoteOpt = findById(quoteId);
-            if (currentQuoteOpt.isEmpty()) {
-                log.warn("Quote not found with id: {}", quoteId);
-                return Optional.empty();
+            QuoteDTO currentQuote;
+            Optional<String> previousDocumentId;
+            String documentId;
+            // Validate the file (PDF, not empty, up to 10MB) while spooling it to disk in a single pass
+            try (AttachmentSpool.SpooledAttachment spooledFile = attachmentSpool.spool(file)) {
+                // First, get the current quote, revalidated: the PATCH rewrites whole arrays built from it
+                Optional<QuoteDTO> currentQuoteOpt = findById(quoteId, true);
+                if (currentQuoteOpt.isEmpty()) {
+                    log.warn("Quote not found with id: {}", quoteId);
+                    return Optional.empty();
+                }
+                currentQuote = currentQuoteOpt.get();
+                previousDocumentId = extractDocumentIdFromQuote(currentQuote);
+
+                if (attachmentDeduplicationEnabled && previousDocumentId.isPresent()
+                        && documentService.hasSameContent(previousDocumentId.get(), spooledFile)) {
+                    // The quote already references identical content, keep its document
+                    documentId = previousDocumentId.get();
+                    log.info("Quote {} already references identical content in document {}, skipping the upload", quoteId, documentId);
+                } else {
+                    // Upload file to TMForum Document API (stores file in S3 and returns document reference)
+                    documentId = documentService.createDocumentSpecification(spooledFile, description).getId();
+                }
             }
             
-            QuoteDTO currentQuote = currentQuoteOpt.get();
-            Optional<String> previousDocumentId = extractDocumentIdFromQuote(currentQuote);
-
-            // Upload file to TMForum Document API (stores file in S3 and returns document reference)
-            DocumentSpecificationDTO documentSpecification =
-                    documentService.createDocumentSpecification(file, description);
-            String documentId = documentSpecification.getId();
-            
             // Build quote attachment with document reference in content field
             AttachmentRefOrValueDTO attachment = createAttachmentFromDocument(documentId, file, description);
             
+            if (previousDocumentId.filter(documentId::equals).isPresent() && hasSameAttachment(currentQuote, attachment)) {
+                log.info("Quote {} already has this attachment, skipping the update", quoteId);
+                return Optional.of(completedOperation(currentQuote, documentId));
+            }
+            
             // Create a minimal update payload with the new attachment
             String jsonPayload = buildAttachmentUpdateJson(attachment, currentQuote);
             
@@ -850,22 +721,45 @@ public class QuoteServiceImpl implements QuoteService {
                 request, 
                 QuoteDTO.class
             ).getBody();
+            quoteReadModel.merge(updatedQuote);
+            quoteResponseCache.invalidate(quoteId);
             
             log.info("Received updated quote from TMForum API: {}", updatedQuote);
 
-            // CRITICAL: Wait until the attachment is actually persisted before returning success
-            // The TMForum API might return success before async processing completes
-            if (updatedQuote != null) {
-                if (attachmentVerificationEnabled) {
-                    log.info("Waiting for document reference to be persisted on quote before returning success...");
-                    waitForAttachmentPersistence(quoteId, documentId, attachmentVerificationMaxAttempts, attachmentVerificationDelayMs);
-                    log.info("Document reference persistence confirmed for quote: {} and documentId: {}", quoteId, documentId);
-                }
+            if (updatedQuote == null) {
+                return Optional.empty();
+            }
 
-                // Remove replaced document from Document API after the new reference is persisted on the quote
-                previousDocumentId
-                        .filter(oldDocumentId -> !oldDocumentId.equals(documentId))
-                        .ifPresent(oldDocumentId -> deleteDocumentQuietly(oldDocumentId, quoteId));
+            // Remove replaced document from Document API after the new reference is persisted on the quote
+            Runnable deletePreviousDocument = () -> previousDocumentId
+                    .filter(oldDocumentId -> !oldDocumentId.equals(documentId))
+                    .ifPresent(oldDocumentId -> documentCollector.release(oldDocumentId, quoteId, DocumentDeletionEntity.REASON_REPLACED));
+
+            // CRITICAL: The attachment must be persisted before returning success, but the TMForum API might
+            // return success before async processing completes. A PATCH response that already carries the
+            // reference is trusted; otherwise the quote is re-read, on the request thread or in the background
+            AttachmentOperationDTO operation;
+            if (!attachmentVerificationEnabled || AttachmentVerifier.hasDocumentReference(updatedQuote, documentId)) {
+                log.info("Document reference persistence confirmed by the PATCH response for quote: {} and documentId: {}", quoteId, documentId);
+                deletePreviousDocument.run();
+                operation = completedOperation(updatedQuote, documentId);
+            } else if (verifyAsync) {
+                operation = attachmentVerifier.start(quoteId, documentId, previousDocumentId.orElse(null));
+            } else {
+                log.info("Waiting for document reference to be persisted on quote before returning success...");
+                QuoteDTO verifiedQuote;
+                try {
+                    verifiedQuote = waitForAttachmentPersistence(quoteId, documentId);
+                } catch (RuntimeException e) {
+                    // The quote does not reference the new upload, do not leave it orphaned in the Document API
+                    if (previousDocumentId.filter(documentId::equals).isEmpty()) {
+                        documentCollector.release(documentId, quoteId, DocumentDeletionEntity.REASON_UNVERIFIED);
+                    }
+                    throw e;
+                }
+                log.info("Document reference persistence confirmed for quote: {} and documentId: {}", quoteId, documentId);
+                deletePreviousDocument.run();
+                operation = completedOperation(verifiedQuote, documentId);
             }
 
             // Send notification to customer about the new document
@@ -916,7 +810,7 @@ public class QuoteServiceImpl implements QuoteService {
                 }
             }
             
-            return Optional.ofNullable(updatedQuote);
+            return Optional.of(operation);
             
         } catch (IllegalArgumentException e) {
             log.error("Validation error for file upload: {}", e.getMessage());
@@ -927,12 +821,17 @@ public class QuoteServiceImpl implements QuoteService {
         }
     }
 
+    @Override
+    public Optional<AttachmentOperationDTO> findAttachmentOperation(String operationId) {
+        return attachmentVerifier.find(operationId);
+    }
+
     @Override
     public Optional<QuoteDTO> removeQuoteAttachment(String quoteId) {
         log.debug("Removing quote attachment - quoteId: '{}'", quoteId);
 
         try {
-            Optional<QuoteDTO> currentQuoteOpt = findById(quoteId);
+            Optional<QuoteDTO> currentQuoteOpt = findById(quoteId, true);
             if (currentQuoteOpt.isEmpty()) {
                 log.warn("Quote not found with id: {}", quoteId);
                 return Optional.empty();
@@ -960,10 +859,12 @@ public class QuoteServiceImpl implements QuoteService {
                     request,
                     QuoteDTO.class
             ).getBody();
+            quoteReadModel.merge(updatedQuote);
+            quoteResponseCache.invalidate(quoteId);
 
             log.info("Attachment reference removed from quote - quoteId: {}", quoteId);
 
-            documentService.deleteDocumentSpecification(documentId);
+            documentCollector.release(documentId, quoteId, DocumentDeletionEntity.REASON_REMOVED);
 
             return Optional.ofNullable(updatedQuote);
 
@@ -981,8 +882,8 @@ public class QuoteServiceImpl implements QuoteService {
         log.debug("Updating quote date - quoteId: '{}', date: '{}', dateType: '{}'", quoteId, date, dateType);
         
         try {
-            // First, get the current quote
-            Optional<QuoteDTO> currentQuoteOpt = findById(quoteId);
+            // First, get the current quote, revalidated: the PATCH rewrites whole arrays built from it
+            Optional<QuoteDTO> currentQuoteOpt = findById(quoteId, true);
             if (currentQuoteOpt.isEmpty()) {
                 log.warn("Quote not found with id: {}", quoteId);
                 return Optional.empty();
@@ -1019,6 +920,8 @@ public class QuoteServiceImpl implements QuoteService {
                 request, 
                 QuoteDTO.class
             ).getBody();
+            quoteReadModel.merge(updatedQuote);
+            quoteResponseCache.invalidate(quoteId);
             
             log.info("Received updated quote from TMForum API: {}", updatedQuote);
             return Optional.ofNullable(updatedQuote);
@@ -1040,6 +943,7 @@ public class QuoteServiceImpl implements QuoteService {
             HttpEntity<String> requestEntity = new HttpEntity<>(headers);
             
             restTemplate.exchange(url, HttpMethod.DELETE, requestEntity, Void.class);
+            quoteReadModel.remove(id);
         } catch (Exception e) {
             log.error("Error calling TMForum API: {}", e.getMessage());
             throw e; // Re-throw the original exception to preserve HTTP status codes
@@ -1386,14 +1290,19 @@ public class QuoteServiceImpl implements QuoteService {
         return Optional.empty();
     }
 
-    private void deleteDocumentQuietly(String documentId, String quoteId) {
-        try {
-            documentService.deleteDocumentSpecification(documentId);
-            log.info("Deleted replaced document - quoteId: {}, documentId: {}", quoteId, documentId);
-        } catch (Exception e) {
-            log.warn("Failed to delete replaced document - quoteId: {}, documentId: {}: {}",
-                    quoteId, documentId, e.getMessage());
+    /**
+     * @return whether the attachment of the quote has the same document, name and description as the given one
+     */
+    private boolean hasSameAttachment(QuoteDTO quote, AttachmentRefOrValueDTO attachment) {
+        if (quote.getQuoteItem() == null || quote.getQuoteItem().isEmpty()
+                || quote.getQuoteItem().get(0).getAttachment() == null
+                || quote.getQuoteItem().get(0).getAttachment().isEmpty()) {
+            return false;
         }
+        AttachmentRefOrValueDTO current = quote.getQuoteItem().get(0).getAttachment().get(0);
+        return Objects.equals(current.getContent(), attachment.getContent())
+                && Objects.equals(current.getName(), attachment.getName())
+                && Objects.equals(current.getDescription(), attachment.getDescription());
     }
 
     /**
@@ -1424,6 +1333,7 @@ public class QuoteServiceImpl implements QuoteService {
      * Build a minimal JSON payload for coordinator quote creation
      */
     private String buildCoordinatorQuoteJson(String customerMessage, String customerIdRef) {
+        List<CompletableFuture<?>> lookups = new ArrayList<>();
         try {
             // Create the root JSON object
             ObjectNode quoteJson = objectMapper.createObjectNode();
@@ -1448,8 +1358,12 @@ public class QuoteServiceImpl implements QuoteService {
             // Add customer and buyer operator as relatedParty at the quote level
             ArrayNode relatedPartyArray = objectMapper.createArrayNode();
             if (customerIdRef != null && !customerIdRef.trim().isEmpty()) {
-                // Resolve buyer name from Organization API
-                String buyerName = resolveBuyerNameFromOrganization(customerIdRef);
+                // Resolve buyer name and buyer operator ID from Organization API concurrently
+                long lookupDeadline = lookupDeadline();
+                String buyerOperatorName = appConfig.getDidIdentifier();
+                CompletableFuture<String> buyerNameLookup = lookup(lookups, () -> resolveBuyerNameFromOrganization(customerIdRef));
+                CompletableFuture<String> buyerOperatorLookup = lookup(lookups, () -> organizationResolver.resolveIdByIdentificationId(buyerOperatorName));
+                String buyerName = awaitLookup(buyerNameLookup, lookupDeadline);
                 
                 ObjectNode customerParty = objectMapper.createObjectNode();
                 customerParty.put("@type", "RelatedParty");
@@ -1460,9 +1374,7 @@ public class QuoteServiceImpl implements QuoteService {
                 customerParty.put("@referredType", "organization");
                 relatedPartyArray.add(customerParty);
 
-                String buyerOperatorName = appConfig.getDidIdentifier();
-                // Resolve buyer operator ID from Organization API
-                String buyerOperatorId = resolveBuyerOperatorIdFromOrganization(buyerOperatorName);
+                String buyerOperatorId = awaitLookup(buyerOperatorLookup, lookupDeadline);
                 
                 ObjectNode buyerOperator = objectMapper.createObjectNode();
                 buyerOperator.put("id", buyerOperatorId);
@@ -1487,9 +1399,14 @@ public class QuoteServiceImpl implements QuoteService {
             
             return jsonPayload;
             
+        } catch (QuoteManagementException e) {
+            // Propagate QuoteManagementException (e.g. a lookup timeout) to preserve HttpStatus
+            throw e;
         } catch (Exception e) {
             log.error("Error building coordinator quote JSON: {}", e.getMessage());
             throw new RuntimeException("Failed to build coordinator quote JSON", e);
+        } finally {
+            cancelPendingLookups(lookups);
         }
     }
     
@@ -1497,6 +1414,7 @@ public class QuoteServiceImpl implements QuoteService {
      * Build a minimal JSON payload that conforms to TMForum Quote creation standards
      */
     private String buildCreateQuoteJson(String customerMessage, String customerIdRef, String providerIdRef, String productOfferingId, String category, String externalId) {
+        List<CompletableFuture<?>> lookups = new ArrayList<>();
         try {
             // Create the root JSON object
             ObjectNode quoteJson = objectMapper.createObjectNode();
@@ -1516,6 +1434,22 @@ public class QuoteServiceImpl implements QuoteService {
                 quoteJson.put("externalId", externalId);
             }
             
+            // Issue the independent upstream lookups concurrently; results are awaited in the original order,
+            // so the first failing lookup is reported as when they ran one after another
+            long lookupDeadline = lookupDeadline();
+            boolean hasProductOffering = productOfferingId != null && !productOfferingId.trim().isEmpty();
+            boolean hasCustomer = customerIdRef != null && !customerIdRef.trim().isEmpty();
+            String buyerOperatorName = appConfig.getDidIdentifier();
+            CompletableFuture<Optional<ProductOfferingResolver.ProductOfferingInfo>> productOfferingLookup = hasProductOffering
+                ? lookup(lookups, () -> productOfferingResolver.resolve(productOfferingId))
+                : null;
+            CompletableFuture<String> buyerNameLookup = hasCustomer
+                ? lookup(lookups, () -> resolveBuyerNameFromOrganization(customerIdRef))
+                : null;
+            CompletableFuture<String> buyerOperatorLookup = hasCustomer
+                ? lookup(lookups, () -> organizationResolver.resolveIdByIdentificationId(buyerOperatorName))
+                : null;
+
             // Add relatedParty array at the Quote level for Seller, SellerOperator, Customer and BuyerOperator
             ArrayNode relatedPartyArray = objectMapper.createArrayNode();
 
@@ -1529,9 +1463,10 @@ public class QuoteServiceImpl implements QuoteService {
                 seller.put("@referredType", "organization");
                 relatedPartyArray.add(seller);
                 log.info("Added Seller to quote-level relatedParty array with ID: {} (from providerIdRef)", providerIdRef);
-            } else if (productOfferingId != null && !productOfferingId.trim().isEmpty()) {
+            } else if (hasProductOffering) {
                 // Fallback: resolve Seller from ProductOffering for tailored quotes
-                SellerInfo sellerInfo = resolveSellerIdFromProductOffering(productOfferingId)
+                ProductOfferingResolver.PartyRef sellerInfo = awaitLookup(productOfferingLookup, lookupDeadline)
+                    .map(ProductOfferingResolver.ProductOfferingInfo::seller)
                     .orElseThrow(() -> {
                         String errorMsg = String.format(
                             "Cannot create quote: Seller not found or incomplete in ProductOffering.relatedParty for productOfferingId '%s'. " +
@@ -1559,10 +1494,11 @@ public class QuoteServiceImpl implements QuoteService {
             String sellerOperatorName;
             String sellerOperatorSource;
 
-            if (productOfferingId != null && !productOfferingId.trim().isEmpty()) {
-                Optional<SellerOperatorInfo> sellerOperatorInfoOpt = resolveSellerOperatorIdFromProductOffering(productOfferingId);
+            if (hasProductOffering) {
+                Optional<ProductOfferingResolver.PartyRef> sellerOperatorInfoOpt = awaitLookup(productOfferingLookup, lookupDeadline)
+                    .map(ProductOfferingResolver.ProductOfferingInfo::sellerOperator);
                 if (sellerOperatorInfoOpt.isPresent()) {
-                    SellerOperatorInfo sellerOperatorInfo = sellerOperatorInfoOpt.get();
+                    ProductOfferingResolver.PartyRef sellerOperatorInfo = sellerOperatorInfoOpt.get();
                     sellerOperatorId = sellerOperatorInfo.id();
                     sellerOperatorHref = sellerOperatorInfo.href();
                     sellerOperatorName = sellerOperatorInfo.name();
@@ -1593,9 +1529,9 @@ public class QuoteServiceImpl implements QuoteService {
                 sellerOperatorId, sellerOperatorHref, sellerOperatorName, sellerOperatorSource);
             
             // Add customer and buyer operator on the quote-level relatedParty
-            if (customerIdRef != null && !customerIdRef.trim().isEmpty()) {
-                // Resolve buyer name from Organization API
-                String buyerName = resolveBuyerNameFromOrganization(customerIdRef);
+            if (hasCustomer) {
+                // Buyer name from Organization API
+                String buyerName = awaitLookup(buyerNameLookup, lookupDeadline);
                 
                 ObjectNode customerParty = objectMapper.createObjectNode();
                 customerParty.put("@type", "RelatedParty");
@@ -1606,9 +1542,8 @@ public class QuoteServiceImpl implements QuoteService {
                 customerParty.put("@referredType", "organization");
                 relatedPartyArray.add(customerParty);
 
-                String buyerOperatorName = appConfig.getDidIdentifier();
-                // Resolve buyer operator ID from Organization API
-                String buyerOperatorId = resolveBuyerOperatorIdFromOrganization(buyerOperatorName);
+                // Buyer operator ID from Organization API
+                String buyerOperatorId = awaitLookup(buyerOperatorLookup, lookupDeadline);
                 
                 ObjectNode buyerOperator = objectMapper.createObjectNode();
                 buyerOperator.put("id", buyerOperatorId);
@@ -1653,9 +1588,75 @@ public class QuoteServiceImpl implements QuoteService {
             
             return jsonPayload;
             
+        } catch (QuoteManagementException e) {
+            // Propagate QuoteManagementException (e.g. a lookup timeout) to preserve HttpStatus
+            throw e;
         } catch (Exception e) {
             log.error("Error building quote JSON: {}", e.getMessage());
             throw new RuntimeException("Failed to build quote JSON", e);
+        } finally {
+            cancelPendingLookups(lookups);
+        }
+    }
+
+    /**
+     * @return the time by which the upstream lookups of a quote creation must have completed, in System.nanoTime() units
+     */
+    private long lookupDeadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(createLookupTimeoutMs);
+    }
+
+    /**
+     * Start an upstream lookup of a quote creation on the lookup executor.
+     * @param lookups the lookups started for the quote creation, to which this one is added
+     */
+    private <T> CompletableFuture<T> lookup(List<CompletableFuture<?>> lookups, Supplier<T> supplier) {
+        CompletableFuture<T> lookup = CompletableFuture.supplyAsync(supplier, createLookupExecutor);
+        lookups.add(lookup);
+        return lookup;
+    }
+
+    /**
+     * Cancel the lookups of a quote creation that are still pending, once it completed or failed, so lookups
+     * still queued on the executor do not run for a request already answered. Running lookups are not
+     * interrupted: they load the shared resolver caches, which other requests may be waiting on.
+     */
+    private static void cancelPendingLookups(List<CompletableFuture<?>> lookups) {
+        for (CompletableFuture<?> lookup : lookups) {
+            lookup.cancel(false);
+        }
+    }
+
+    /**
+     * Wait for a lookup started with {@link #lookup}, rethrowing the exception it failed with, so callers
+     * see the same errors as when the lookup ran on the request thread.
+     * @throws QuoteManagementException with status 504 if the lookup did not complete before the deadline
+     */
+    private <T> T awaitLookup(CompletableFuture<T> lookup, long deadlineNanos) {
+        try {
+            return lookup.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        } catch (TimeoutException e) {
+            lookup.cancel(false);
+            throw new QuoteManagementException(
+                "Upstream lookups for quote creation did not complete within " + createLookupTimeoutMs + " ms",
+                HttpStatus.GATEWAY_TIMEOUT
+            );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QuoteManagementException(
+                "Interrupted while waiting for upstream lookups for quote creation",
+                HttpStatus.INTERNAL_SERVER_ERROR,
+                e
+            );
         }
     }
 
@@ -1708,8 +1709,9 @@ public class QuoteServiceImpl implements QuoteService {
 
     /**
      * Send notification when a note is added to a quote
+     * @param event the outbox event of the note, unique to it
      */
-    private void sendNoteUpdateNotification(QuoteDTO quote, String senderId, String messageContent) {
+    private void sendNoteUpdateNotification(QuoteDTO quote, String senderId, String messageContent, String event) {
         try {
             // Find the recipient from the relatedParty of the quote
             // The recipient should be the other party (not the sender)
@@ -1749,33 +1751,25 @@ public class QuoteServiceImpl implements QuoteService {
             
             // Send notification if we found a recipient
             if (recipientId != null) {
-                String senderTradingName = resolveOrganizationTradingName(senderId).orElse(senderId);
+                String senderTradingName = organizationResolver.resolveTradingName(senderId).orElse(senderId);
                 String subject;
                 String message;
                 if (messageContent != null && messageContent.startsWith(EmailConstants.PREFIX_ATTACHMENT_UPLOADED)) {
                     String filename = messageContent.substring(EmailConstants.PREFIX_ATTACHMENT_UPLOADED.length()).trim();
-                    subject = EmailConstants.SUBJECT_NEW_ATTACHMENT_UPLOADED;
-                    message = String.format(EmailConstants.BODY_NEW_ATTACHMENT_UPLOADED, filename, senderTradingName);
+                    subject = notificationTemplates.render(NotificationTemplates.Template.NEW_ATTACHMENT_UPLOADED_SUBJECT);
+                    message = notificationTemplates.render(NotificationTemplates.Template.NEW_ATTACHMENT_UPLOADED, filename, senderTradingName);
                 } else if (messageContent != null && messageContent.startsWith(EmailConstants.PREFIX_STATUS_CHANGED_TO)) {
                     String status = messageContent.substring(EmailConstants.PREFIX_STATUS_CHANGED_TO.length()).trim();
-                    subject = EmailConstants.SUBJECT_QUOTE_STATUS_UPDATE;
+                    subject = notificationTemplates.render(NotificationTemplates.Template.QUOTE_STATUS_UPDATE_SUBJECT);
                     // Use status-specific template based on the status value
-                    String statusLower = status.toLowerCase();
-                    if ("inprogress".equals(statusLower)) {
-                        message = String.format(EmailConstants.BODY_STATUS_IN_PROGRESS, status, senderTradingName);
-                    } else if ("approved".equals(statusLower)) {
-                        message = String.format(EmailConstants.BODY_STATUS_APPROVED, status, senderTradingName);
-                    } else if ("accepted".equals(statusLower)) {
-                        message = String.format(EmailConstants.BODY_STATUS_ACCEPTED, status, senderTradingName);
-                    } else if ("canceled".equals(statusLower) || "cancelled".equals(statusLower)) {
-                        message = String.format(EmailConstants.BODY_STATUS_CANCELED, status, senderTradingName);
-                    } else {
+                    message = notificationTemplates.renderStatus(QuoteStatus.fromValue(status), status, senderTradingName);
+                    if (message == null) {
                         // Fallback to generic template for other statuses
-                        message = String.format(EmailConstants.BODY_QUOTE_STATUS_UPDATE, senderTradingName, status);
+                        message = notificationTemplates.render(NotificationTemplates.Template.QUOTE_STATUS_UPDATE, senderTradingName, status);
                     }
                 } else {
-                    subject = EmailConstants.SUBJECT_NEW_NOTE_ADDED;
-                    message = String.format(EmailConstants.BODY_NEW_NOTE_ADDED, senderTradingName, messageContent != null ? messageContent : "");
+                    subject = notificationTemplates.render(NotificationTemplates.Template.NEW_NOTE_ADDED_SUBJECT);
+                    message = notificationTemplates.render(NotificationTemplates.Template.NEW_NOTE_ADDED, senderTradingName, messageContent != null ? messageContent : "");
                 }
                 NotificationRequestDTO notification = NotificationRequestDTO.builder()
                     .sender(senderId)
@@ -1783,7 +1777,7 @@ public class QuoteServiceImpl implements QuoteService {
                     .subject(subject)
                     .message(message)
                     .build();
-                notificationService.sendNotification(notification);
+                notificationService.sendNotification(notification, quote.getId(), event);
                 log.info("Sent note update notification - sender: {}, recipient: {}, quoteId: {}", 
                     senderId, recipientId, quote.getId());
             } else {
@@ -1822,8 +1816,8 @@ public class QuoteServiceImpl implements QuoteService {
             }
 
             // Create status-specific messages
-            String statusMessage = getStatusUpdateMessage(newStatus);
-            String subject = "Quote Status Updated - " + newStatus;
+            String statusMessage = notificationTemplates.describeStatus(QuoteStatus.fromValue(newStatus));
+            String subject = notificationTemplates.render(NotificationTemplates.Template.QUOTE_STATUS_UPDATED_SUBJECT, newStatus);
 
             // Send notification to customer
             if (customerId != null && sellerId != null) {
@@ -1831,8 +1825,7 @@ public class QuoteServiceImpl implements QuoteService {
                     .sender(sellerId)
                     .recipient(customerId)
                     .subject(subject)
-                    .message(String.format(
-                        "Your quote (ID: %s) status has been updated to: %s\n\n%s",
+                    .message(notificationTemplates.render(NotificationTemplates.Template.QUOTE_STATUS_UPDATED_CUSTOMER,
                         quote.getId(),
                         newStatus,
                         statusMessage
@@ -1852,8 +1845,7 @@ public class QuoteServiceImpl implements QuoteService {
                     .sender(customerId)
                     .recipient(sellerId)
                     .subject(subject)
-                    .message(String.format(
-                        "Quote (ID: %s) status has been updated to: %s\n\n%s",
+                    .message(notificationTemplates.render(NotificationTemplates.Template.QUOTE_STATUS_UPDATED_SELLER,
                         quote.getId(),
                         newStatus,
                         statusMessage
@@ -1872,398 +1864,6 @@ public class QuoteServiceImpl implements QuoteService {
         }
     }
 
-    /**
-     * Get a user-friendly message based on the status update
-     */
-    private String getStatusUpdateMessage(String status) {
-        switch (status.toLowerCase()) {
-            case "inprogress":
-                return "The quote is currently being processed by our sales team. We are working on building the quote according to your requirements.";
-            case "pending":
-                return "The quote is pending validation from our perspective for tariff validation or to capture detailed information.";
-            case "approved":
-                return "The quote has been internally approved and is ready for your review. The quote is no longer updatable.";
-            case "cancelled":
-                return "The quote process has been stopped. This quote has never been sent to the customer.";
-            case "accepted":
-                return "The quote has been accepted and signed by the customer. The order has been committed.";
-            case "rejected":
-                return "The quote has been rejected by the customer. No further quotes will be initiated from this quotation.";
-            default:
-                return "The quote status has been updated. Please review the quote for more details.";
-        }
-    }
-
-    /**
-     * Resolve SellerOperator information (id, href, name) from ProductOffering.relatedParty
-     * @param productOfferingId the ProductOffering ID to query
-     * @return Optional containing SellerOperatorInfo with id, href, and name if found and complete
-     */
-    private Optional<SellerOperatorInfo> resolveSellerOperatorIdFromProductOffering(String productOfferingId) {
-        try {
-            if (productOfferingId == null || productOfferingId.trim().isEmpty()) {
-                log.error("Cannot resolve SellerOperator: productOfferingId is null or empty");
-                return Optional.empty();
-            }
-
-            String base = appConfig.getTmforumProductCatalogApiBaseUrl().trim();
-            String poEndpoint = appConfig.getTmforumProductCatalogManagementEndpoint();
-            String url = (base + poEndpoint).replaceAll("/+$", "") + "/" + productOfferingId.trim();
-
-            log.debug("Calling ProductOffering API to resolve SellerOperator: {}", url);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
-            HttpEntity<?> request = new HttpEntity<>(headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                request,
-                String.class
-            );
-
-            String body = response.getBody();
-            if (body == null || body.isEmpty()) {
-                log.error("Cannot resolve SellerOperator: Empty ProductOffering response for id {}", productOfferingId);
-                return Optional.empty();
-            }
-
-            JsonNode root = objectMapper.readTree(body);
-            JsonNode relatedParties = root.get("relatedParty");
-            
-            if (relatedParties == null || !relatedParties.isArray()) {
-                log.error("Cannot resolve SellerOperator: ProductOffering '{}' does not have a relatedParty array", productOfferingId);
-                return Optional.empty();
-            }
-
-            for (JsonNode rp : relatedParties) {
-                String role = rp.hasNonNull("role") ? rp.get("role").asText() : null;
-                if (role != null && QuoteRole.equalsIgnoreCase(role, QuoteRole.SELLER_OPERATOR)) {
-                    String id = rp.hasNonNull("id") ? rp.get("id").asText() : null;
-                    String href = rp.hasNonNull("href") ? rp.get("href").asText() : null;
-                    String name = rp.hasNonNull("name") ? rp.get("name").asText() : null;
-                    
-                    // Validate that all three attributes are present and not empty
-                    if (id == null || id.trim().isEmpty()) {
-                        log.error("Cannot resolve SellerOperator: ProductOffering '{}' has SellerOperator relatedParty but 'id' is missing or empty", productOfferingId);
-                        return Optional.empty();
-                    }
-                    if (href == null || href.trim().isEmpty()) {
-                        log.error("Cannot resolve SellerOperator: ProductOffering '{}' has SellerOperator relatedParty but 'href' is missing or empty (id: {})", productOfferingId, id);
-                        return Optional.empty();
-                    }
-                    if (name == null || name.trim().isEmpty()) {
-                        log.error("Cannot resolve SellerOperator: ProductOffering '{}' has SellerOperator relatedParty but 'name' is missing or empty (id: {}, href: {})", productOfferingId, id, href);
-                        return Optional.empty();
-                    }
-                    
-                    log.debug("Successfully resolved SellerOperator from ProductOffering '{}': id={}, href={}, name={}", 
-                        productOfferingId, id, href, name);
-                    return Optional.of(new SellerOperatorInfo(id.trim(), href.trim(), name.trim()));
-                }
-            }
-
-            log.error("Cannot resolve SellerOperator: ProductOffering '{}' does not contain a relatedParty with role='SellerOperator'", productOfferingId);
-            return Optional.empty();
-        } catch (org.springframework.web.client.HttpClientErrorException e) {
-            log.error("Cannot resolve SellerOperator: HTTP error when calling ProductOffering API for id '{}': {} - {}", 
-                productOfferingId, e.getStatusCode(), e.getMessage());
-            return Optional.empty();
-        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
-            log.error("Cannot resolve SellerOperator: Failed to parse ProductOffering JSON response for id '{}': {}", 
-                productOfferingId, e.getMessage());
-            return Optional.empty();
-        } catch (Exception e) {
-            log.error("Cannot resolve SellerOperator: Unexpected error when resolving from ProductOffering '{}': {} - {}", 
-                productOfferingId, e.getClass().getSimpleName(), e.getMessage(), e);
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Resolve Seller information from ProductOffering by searching for a relatedParty with role="Seller".
-     * Calls the ProductOffering API and extracts id, href, and name from the relatedParty array.
-     * @param productOfferingId the ProductOffering ID to query
-     * @return Optional containing SellerInfo with id, href, and name if found and complete
-     */
-    private Optional<SellerInfo> resolveSellerIdFromProductOffering(String productOfferingId) {
-        try {
-            if (productOfferingId == null || productOfferingId.trim().isEmpty()) {
-                log.error("Cannot resolve Seller: productOfferingId is null or empty");
-                return Optional.empty();
-            }
-
-            String base = appConfig.getTmforumProductCatalogApiBaseUrl().trim();
-            String poEndpoint = appConfig.getTmforumProductCatalogManagementEndpoint();
-            String url = (base + poEndpoint).replaceAll("/+$", "") + "/" + productOfferingId.trim();
-
-            log.debug("Calling ProductOffering API to resolve Seller: {}", url);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
-            HttpEntity<?> request = new HttpEntity<>(headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                request,
-                String.class
-            );
-
-            String body = response.getBody();
-            if (body == null || body.isEmpty()) {
-                log.error("Cannot resolve Seller: Empty ProductOffering response for id {}", productOfferingId);
-                return Optional.empty();
-            }
-
-            JsonNode root = objectMapper.readTree(body);
-            JsonNode relatedParties = root.get("relatedParty");
-            
-            if (relatedParties == null || !relatedParties.isArray()) {
-                log.error("Cannot resolve Seller: ProductOffering '{}' does not have a relatedParty array", productOfferingId);
-                return Optional.empty();
-            }
-
-            for (JsonNode rp : relatedParties) {
-                String role = rp.hasNonNull("role") ? rp.get("role").asText() : null;
-                if (role != null && QuoteRole.equalsIgnoreCase(role, QuoteRole.SELLER)) {
-                    String id = rp.hasNonNull("id") ? rp.get("id").asText() : null;
-                    String href = rp.hasNonNull("href") ? rp.get("href").asText() : null;
-                    String name = rp.hasNonNull("name") ? rp.get("name").asText() : null;
-                    
-                    // Validate that all three attributes are present and not empty
-                    if (id == null || id.trim().isEmpty()) {
-                        log.error("Cannot resolve Seller: ProductOffering '{}' has Seller relatedParty but 'id' is missing or empty", productOfferingId);
-                        return Optional.empty();
-                    }
-                    if (href == null || href.trim().isEmpty()) {
-                        log.error("Cannot resolve Seller: ProductOffering '{}' has Seller relatedParty but 'href' is missing or empty (id: {})", productOfferingId, id);
-                        return Optional.empty();
-                    }
-                    if (name == null || name.trim().isEmpty()) {
-                        log.error("Cannot resolve Seller: ProductOffering '{}' has Seller relatedParty but 'name' is missing or empty (id: {}, href: {})", productOfferingId, id, href);
-                        return Optional.empty();
-                    }
-                    
-                    log.debug("Successfully resolved Seller from ProductOffering '{}': id={}, href={}, name={}", 
-                        productOfferingId, id, href, name);
-                    return Optional.of(new SellerInfo(id.trim(), href.trim(), name.trim()));
-                }
-            }
-
-            log.error("Cannot resolve Seller: ProductOffering '{}' does not contain a relatedParty with role='Seller'", productOfferingId);
-            return Optional.empty();
-        } catch (org.springframework.web.client.HttpClientErrorException e) {
-            log.error("Cannot resolve Seller: HTTP error when calling ProductOffering API for id '{}': {} - {}", 
-                productOfferingId, e.getStatusCode(), e.getMessage());
-            return Optional.empty();
-        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
-            log.error("Cannot resolve Seller: Failed to parse ProductOffering JSON response for id '{}': {}", 
-                productOfferingId, e.getMessage());
-            return Optional.empty();
-        } catch (Exception e) {
-            log.error("Cannot resolve Seller: Unexpected error when resolving from ProductOffering '{}': {} - {}", 
-                productOfferingId, e.getClass().getSimpleName(), e.getMessage(), e);
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Resolve ProductOffering name from the TMF ProductOffering API by id.
-     * @param productOfferingId the ProductOffering ID to query
-     * @return Optional with the product offering name if found, empty otherwise
-     */
-    private Optional<String> resolveProductOfferingName(String productOfferingId) {
-        try {
-            if (productOfferingId == null || productOfferingId.trim().isEmpty()) {
-                return Optional.empty();
-            }
-            String base = appConfig.getTmforumProductCatalogApiBaseUrl().trim();
-            String poEndpoint = appConfig.getTmforumProductCatalogManagementEndpoint();
-            String url = (base + poEndpoint).replaceAll("/+$", "") + "/" + productOfferingId.trim();
-            HttpHeaders headers = new HttpHeaders();
-            headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
-            HttpEntity<?> request = new HttpEntity<>(headers);
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, request, String.class);
-            String body = response.getBody();
-            if (body == null || body.isEmpty()) {
-                return Optional.empty();
-            }
-            JsonNode root = objectMapper.readTree(body);
-            if (root.hasNonNull("name")) {
-                String name = root.get("name").asText();
-                if (name != null && !name.trim().isEmpty()) {
-                    log.debug("Resolved ProductOffering name '{}' for id {}", name, productOfferingId);
-                    return Optional.of(name.trim());
-                }
-            }
-            return Optional.empty();
-        } catch (Exception e) {
-            log.warn("Could not resolve ProductOffering name for id {}: {}", productOfferingId, e.getMessage());
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Resolve organization tradingName from the Organization API (tmf-api/party/v4/organization/{id}).
-     * Falls back to externalReference.name if tradingName is not present.
-     * @param organizationId the organization ID to look up
-     * @return Optional with tradingName (or fallback name), empty on failure (e.g. so notification can still be sent)
-     */
-    private Optional<String> resolveOrganizationTradingName(String organizationId) {
-        try {
-            if (organizationId == null || organizationId.trim().isEmpty()) {
-                return Optional.empty();
-            }
-            String base = appConfig.getTmforumPartyApiBaseUrl().trim();
-            String orgEndpoint = appConfig.getTmforumOrganizationEndpoint();
-            String url = (base + orgEndpoint).replaceAll("/+$", "") + "/" + organizationId.trim();
-            HttpHeaders headers = new HttpHeaders();
-            headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
-            HttpEntity<?> request = new HttpEntity<>(headers);
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, request, String.class);
-            String body = response.getBody();
-            if (body == null || body.isEmpty()) {
-                return Optional.empty();
-            }
-            JsonNode root = objectMapper.readTree(body);
-            if (root.hasNonNull("tradingName")) {
-                String tradingName = root.get("tradingName").asText();
-                if (tradingName != null && !tradingName.trim().isEmpty()) {
-                    log.debug("Resolved organization tradingName '{}' for id {}", tradingName, organizationId);
-                    return Optional.of(tradingName.trim());
-                }
-            }
-            JsonNode externalReferences = root.get("externalReference");
-            if (externalReferences != null && externalReferences.isArray()) {
-                for (JsonNode extRef : externalReferences) {
-                    if (extRef.hasNonNull("name")) {
-                        String name = extRef.get("name").asText();
-                        if (name != null && !name.trim().isEmpty()) {
-                            log.debug("Using externalReference.name '{}' as fallback for organization id {}", name, organizationId);
-                            return Optional.of(name.trim());
-                        }
-                    }
-                }
-            }
-            return Optional.empty();
-        } catch (Exception e) {
-            log.warn("Could not resolve organization tradingName for id {}: {}", organizationId, e.getMessage());
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Resolve organization ID by searching for an organization that has 
-     * organizationIdentification.identificationId matching the provided identifier.
-     * @param identificationId the identification ID to search for (e.g., "did:elsi:VATIT-04323210874")
-     * @return the organization ID if found
-     * @throws QuoteManagementException if the organization is not found or cannot be resolved
-     */
-    private String resolveBuyerOperatorIdFromOrganization(String identificationId) {
-        try {
-            if (identificationId == null || identificationId.trim().isEmpty()) {
-                throw new QuoteManagementException(
-                    "Identification ID cannot be null or empty",
-                    HttpStatus.BAD_REQUEST
-                );
-            }
-
-            String base = appConfig.getTmforumPartyApiBaseUrl().trim();
-            String orgEndpoint = appConfig.getTmforumOrganizationEndpoint();
-            // Build URL with query parameter to filter by identificationId
-            String url = UriComponentsBuilder.fromHttpUrl(base + orgEndpoint)
-                .queryParam("organizationIdentification.identificationId", identificationId)
-                .build(true)
-                .toUriString();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
-            HttpEntity<?> request = new HttpEntity<>(headers);
-
-            log.debug("Calling Organization API to find organization with identificationId: {}", identificationId);
-            log.debug("Organization API URL: {}", url);
-            ResponseEntity<String> response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                request,
-                String.class
-            );
-
-            String body = response.getBody();
-            if (body == null || body.isEmpty()) {
-                throw new QuoteManagementException(
-                    "Empty Organization API response when searching for identificationId: " + identificationId,
-                    HttpStatus.NOT_FOUND
-                );
-            }
-
-            JsonNode root = objectMapper.readTree(body);
-            
-            // Handle both array response and single object response
-            JsonNode organizations;
-            if (root.isArray()) {
-                organizations = root;
-            } else if (root.has("organization") && root.get("organization").isArray()) {
-                organizations = root.get("organization");
-            } else {
-                // Single organization object
-                organizations = objectMapper.createArrayNode().add(root);
-            }
-
-            if (organizations != null && organizations.isArray()) {
-                for (JsonNode org : organizations) {
-                    // Check organizationIdentification array
-                    JsonNode orgIdentifications = org.get("organizationIdentification");
-                    if (orgIdentifications != null && orgIdentifications.isArray()) {
-                        for (JsonNode orgId : orgIdentifications) {
-                            if (orgId.hasNonNull("identificationId")) {
-                                String orgIdentificationId = orgId.get("identificationId").asText();
-                                if (identificationId.trim().equals(orgIdentificationId.trim())) {
-                                    // Found matching organization
-                                    if (org.hasNonNull("id")) {
-                                        String orgIdValue = org.get("id").asText();
-                                        log.info("Found organization with id '{}' matching identificationId '{}'", 
-                                            orgIdValue, identificationId);
-                                        return orgIdValue.trim();
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-
-            throw new QuoteManagementException(
-                "Organization not found with identificationId: " + identificationId,
-                HttpStatus.NOT_FOUND
-            );
-        } catch (QuoteManagementException e) {
-            throw e; // Re-throw our custom exceptions
-        } catch (org.springframework.web.client.HttpClientErrorException e) {
-            // Handle 404 from API specifically
-            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
-                throw new QuoteManagementException(
-                    "Organization API endpoint not found or organization not found with identificationId: " + identificationId,
-                    HttpStatus.NOT_FOUND,
-                    e
-                );
-            }
-            throw new QuoteManagementException(
-                "Failed to resolve buyer operator from Organization API with identificationId " + identificationId + ": " + e.getMessage(),
-                HttpStatus.INTERNAL_SERVER_ERROR,
-                e
-            );
-        } catch (Exception e) {
-            throw new QuoteManagementException(
-                "Failed to resolve buyer operator from Organization API with identificationId " + identificationId + ": " + e.getMessage(),
-                HttpStatus.INTERNAL_SERVER_ERROR,
-                e
-            );
-        }
-    }
-
     /**
      * Resolve buyer organization name from externalReference.name by calling the Organization API
      * @param organizationId the organization ID to look up (customerIdRef)
@@ -2366,204 +1966,8 @@ public class QuoteServiceImpl implements QuoteService {
      * Supports optional query parameters for filtering
      */
     private List<QuoteDTO> fetchQuotesWithPagination(String baseUrl, java.util.Map<String, String> queryParams) {
-        int pageSize = paginationPageSize;
-        int offset = 0;
-        List<QuoteDTO> allQuotes = new java.util.ArrayList<>();
-        
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
-            
-            boolean hasMore = true;
-            int pageNumber = 0;
-            int consecutiveFailures = 0;
-            int skippedQuotes = 0;
-            final int MAX_CONSECUTIVE_FAILURES = 3;
-            
-            while (hasMore) {
-                try {
-                    UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(baseUrl)
-                        .queryParam("limit", pageSize)
-                        .queryParam("offset", offset);
-                    
-                    // Add optional query parameters
-                    if (queryParams != null) {
-                        queryParams.forEach(builder::queryParam);
-                    }
-                    
-                    String url = builder.build(true).toUriString();
-                    
-                    log.debug("Fetching quotes page {} (offset={}, limit={}): {}", pageNumber + 1, offset, pageSize, url);
-                    
-                    HttpEntity<?> request = new HttpEntity<>(headers);
-                    
-                    var response = restTemplate.exchange(
-                        url,
-                        HttpMethod.GET,
-                        request,
-                        QuoteDTO[].class
-                    );
-                    
-                    QuoteDTO[] quotes = response.getBody();
-                    consecutiveFailures = 0;
-                    
-                    if (quotes == null || quotes.length == 0) {
-                        hasMore = false;
-                        log.debug("No more quotes found at page {}", pageNumber + 1);
-                    } else {
-                        allQuotes.addAll(Arrays.asList(quotes));
-                        log.debug("Retrieved {} quotes from page {} (total so far: {})", quotes.length, pageNumber + 1, allQuotes.size());
-                        
-                        if (quotes.length < pageSize) {
-                            hasMore = false;
-                            log.debug("Reached end of quotes (got {} quotes, expected {})", quotes.length, pageSize);
-                        } else {
-                            offset += pageSize;
-                            pageNumber++;
-                        }
-                    }
-                } catch (org.springframework.web.client.HttpClientErrorException | 
-                         org.springframework.web.client.HttpServerErrorException e) {
-                    String errorMessage = e.getMessage() != null ? e.getMessage().toLowerCase() : "";
-                    boolean isContentLengthError = errorMessage.contains("contentlength") || 
-                                                   errorMessage.contains("content length") ||
-                                                   errorMessage.contains("413") ||
-                                                   (e.getStatusCode() != null && e.getStatusCode().value() == 413);
-                    
-                    if (isContentLengthError || pageSize > 1) {
-                        log.warn("Error fetching page {} with pageSize {}: {}. Trying with pageSize=1 for this page.", 
-                                pageNumber + 1, pageSize, e.getMessage());
-                        
-                        try {
-                            UriComponentsBuilder singleBuilder = UriComponentsBuilder.fromHttpUrl(baseUrl)
-                                .queryParam("limit", 1)
-                                .queryParam("offset", offset);
-                            
-                            if (queryParams != null) {
-                                queryParams.forEach(singleBuilder::queryParam);
-                            }
-                            
-                            String singleQuoteUrl = singleBuilder.build(true).toUriString();
-                            
-                            log.debug("Retrying with single quote: {}", singleQuoteUrl);
-                            
-                            HttpEntity<?> singleRequest = new HttpEntity<>(headers);
-                            var singleResponse = restTemplate.exchange(
-                                singleQuoteUrl,
-                                HttpMethod.GET,
-                                singleRequest,
-                                QuoteDTO[].class
-                            );
-                            
-                            QuoteDTO[] singleQuotes = singleResponse.getBody();
-                            if (singleQuotes != null && singleQuotes.length > 0) {
-                                allQuotes.addAll(Arrays.asList(singleQuotes));
-                                log.info("Successfully retrieved 1 quote individually (total so far: {})", allQuotes.size());
-                                offset += 1;
-                                pageNumber++;
-                                consecutiveFailures = 0;
-                                continue;
-                            } else {
-                                hasMore = false;
-                                log.debug("No quotes returned with pageSize=1, reached end");
-                                break;
-                            }
-                        } catch (Exception singleException) {
-                            skippedQuotes++;
-                            log.error("Even single quote fetch failed at offset {}: {}. Skipping this quote (too large, likely >10MB attachment) and continuing. Total skipped: {}", 
-                                    offset, singleException.getMessage(), skippedQuotes);
-                            consecutiveFailures++;
-                            offset += 1;
-                            pageNumber++;
-                            
-                            if (consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
-                                log.error("Too many consecutive failures ({}). Stopping pagination to avoid infinite loop.", 
-                                        consecutiveFailures);
-                                hasMore = false;
-                                break;
-                            }
-                        }
-                    } else {
-                        log.error("Error fetching page {}: {}. Skipping this page.", pageNumber + 1, e.getMessage());
-                        consecutiveFailures++;
-                        offset += pageSize;
-                        pageNumber++;
-                        
-                        if (consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
-                            log.error("Too many consecutive failures ({}). Stopping pagination.", consecutiveFailures);
-                            hasMore = false;
-                            break;
-                        }
-                    }
-                } catch (Exception e) {
-                    String errorMessage = e.getMessage() != null ? e.getMessage().toLowerCase() : "";
-                    boolean isContentLengthError = errorMessage.contains("contentlength") || 
-                                                   errorMessage.contains("content length") ||
-                                                   errorMessage.contains("exceeded");
-                    
-                    if (isContentLengthError && pageSize > 1) {
-                        log.warn("Content length error at page {}: {}. Trying with pageSize=1.", 
-                                pageNumber + 1, e.getMessage());
-                        
-                        try {
-                            UriComponentsBuilder singleBuilder = UriComponentsBuilder.fromHttpUrl(baseUrl)
-                                .queryParam("limit", 1)
-                                .queryParam("offset", offset);
-                            
-                            if (queryParams != null) {
-                                queryParams.forEach(singleBuilder::queryParam);
-                            }
-                            
-                            String singleQuoteUrl = singleBuilder.build(true).toUriString();
-                            
-                            HttpEntity<?> singleRequest = new HttpEntity<>(headers);
-                            var singleResponse = restTemplate.exchange(
-                                singleQuoteUrl,
-                                HttpMethod.GET,
-                                singleRequest,
-                                QuoteDTO[].class
-                            );
-                            
-                            QuoteDTO[] singleQuotes = singleResponse.getBody();
-                            if (singleQuotes != null && singleQuotes.length > 0) {
-                                allQuotes.addAll(Arrays.asList(singleQuotes));
-                                offset += 1;
-                                pageNumber++;
-                                consecutiveFailures = 0;
-                                continue;
-                            }
-                        } catch (Exception singleException) {
-                            skippedQuotes++;
-                            log.error("Single quote fetch also failed: {}. Skipping quote at offset {} (too large, likely >10MB attachment). Total skipped: {}", 
-                                    singleException.getMessage(), offset, skippedQuotes);
-                            offset += 1;
-                            pageNumber++;
-                            consecutiveFailures++;
-                        }
-                    } else {
-                        log.error("Unexpected error fetching page {}: {}. Skipping this page.", 
-                                pageNumber + 1, e.getMessage(), e);
-                        consecutiveFailures++;
-                        offset += pageSize;
-                        pageNumber++;
-                    }
-                    
-                    if (consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
-                        log.error("Too many consecutive failures ({}). Stopping pagination.", consecutiveFailures);
-                        hasMore = false;
-                        break;
-                    }
-                }
-            }
-            
-            if (skippedQuotes > 0) {
-                log.warn("Retrieved {} quotes total using pagination ({} pages), but {} quotes were skipped due to size exceeding 10MB limit (likely due to large attachments)", 
-                        allQuotes.size(), pageNumber + 1, skippedQuotes);
-            } else {
-                log.info("Successfully retrieved {} quotes total using pagination ({} pages)", allQuotes.size(), pageNumber + 1);
-            }
-            return allQuotes;
-            
+            return quotePaginationEngine.fetchAll(baseUrl, queryParams);
         } catch (Exception e) {
             log.error("Error in pagination helper: {}", e.getMessage(), e);
             return Collections.emptyList();
@@ -2572,49 +1976,55 @@ public class QuoteServiceImpl implements QuoteService {
     
     /**
      * Wait until the document reference is persisted on the quote by the TMForum API.
-     * The TMForum API might return success before async processing completes.
+     * The TMForum API might return success before async processing completes. Checks are spaced by the fixed
+     * delay, without the backoff of the background verification, to bound how long the request thread waits.
+     * @return the quote carrying the reference
      */
-    private void waitForAttachmentPersistence(String quoteId, String documentId, int maxAttempts, int delayMs) {
-        for (int i = 0; i < maxAttempts; i++) {
+    private QuoteDTO waitForAttachmentPersistence(String quoteId, String documentId) {
+        int maxAttempts = attachmentVerifier.getMaxAttempts();
+        long waitedMs = 0;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
             try {
                 // Wait before checking (except for first attempt)
-                if (i > 0) {
+                long delayMs = attempt > 1 ? attachmentVerifier.getDelayMs() : 0;
+                if (delayMs > 0) {
                     Thread.sleep(delayMs);
+                    waitedMs += delayMs;
                 }
                 
                 // Fetch the quote again to verify the document reference exists
-                Optional<QuoteDTO> verificationQuoteOpt = findById(quoteId);
-                if (verificationQuoteOpt.isPresent()) {
-                    QuoteDTO verificationQuote = verificationQuoteOpt.get();
-                    
-                    if (verificationQuote.getQuoteItem() != null) {
-                        for (QuoteItemDTO quoteItem : verificationQuote.getQuoteItem()) {
-                            if (quoteItem.getAttachment() != null) {
-                                for (AttachmentRefOrValueDTO attachment : quoteItem.getAttachment()) {
-                                    if (attachment.getContent() != null && attachment.getContent().equals(documentId)) {
-                                        log.info("Document reference confirmed as persisted on attempt {}: {}", i + 1, documentId);
-                                        return;
-                                    }
-                                }
-                            }
-                        }
-                    }
+                Optional<QuoteDTO> verificationQuoteOpt = findById(quoteId, true);
+                if (verificationQuoteOpt.isPresent() && AttachmentVerifier.hasDocumentReference(verificationQuoteOpt.get(), documentId)) {
+                    log.info("Document reference confirmed as persisted on attempt {}: {}", attempt, documentId);
+                    return verificationQuoteOpt.get();
                 }
                 
-                log.warn("Document reference not yet persisted, attempt {} of {}: {}", i + 1, maxAttempts, documentId);
+                log.warn("Document reference not yet persisted, attempt {} of {}: {}", attempt, maxAttempts, documentId);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 log.error("Attachment persistence check interrupted", e);
                 throw new RuntimeException("File upload verification was interrupted", e);
             } catch (Exception e) {
-                log.error("Error during attachment persistence check attempt {}: {}", i + 1, e.getMessage());
+                log.error("Error during attachment persistence check attempt {}: {}", attempt, e.getMessage());
             }
         }
         
         log.error("Document reference was not persisted after {} attempts and {} seconds total wait time for documentId: {}",
-                maxAttempts, (maxAttempts * delayMs) / 1000, documentId);
+                maxAttempts, waitedMs / 1000, documentId);
         throw new RuntimeException("File upload failed: document reference was not persisted within timeout period. Please try again.");
     }
+
+    private static AttachmentOperationDTO completedOperation(QuoteDTO quote, String documentId) {
+        String now = Instant.now().toString();
+        return AttachmentOperationDTO.builder()
+            .quoteId(quote.getId())
+            .documentId(documentId)
+            .status(AttachmentOperationDTO.STATUS_SUCCEEDED)
+            .createdAt(now)
+            .completedAt(now)
+            .quote(quote)
+            .build();
+    }
 }
 
 
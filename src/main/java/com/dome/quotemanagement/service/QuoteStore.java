@@ -0,0 +1,104 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.dto.tmforum.QuoteDTO;
+import com.dome.quotemanagement.entity.QuoteEntity;
+import com.dome.quotemanagement.repository.QuoteRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Persists the quote read model to the configured JPA datasource, so a restarted instance can warm-start
+ * without recrawling TMForum. Only useful with a durable datasource (PostgreSQL, or the file-backed H2 of the
+ * docker profile): the local profile uses an in-memory H2 database and disables it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QuoteStore {
+
+    private final QuoteRepository quoteRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${quote.read-model.persistence.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * A persisted quote with its position in the TMForum listing order.
+     */
+    public record StoredQuote(QuoteDTO quote, long position) {}
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Load every persisted quote. Rows whose payload cannot be read are skipped.
+     * @return the quotes in listing order
+     */
+    @Transactional(readOnly = true)
+    public List<StoredQuote> loadAll() {
+        List<StoredQuote> stored = new ArrayList<>();
+        for (QuoteEntity entity : quoteRepository.findAllByOrderByListingPositionAsc()) {
+            try {
+                stored.add(new StoredQuote(objectMapper.readValue(entity.getPayload(), QuoteDTO.class), entity.getListingPosition()));
+            } catch (JsonProcessingException e) {
+                log.warn("Skipping persisted quote {} with unreadable payload: {}", entity.getId(), e.getMessage());
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Insert or update quotes and delete others in one transaction.
+     * @param upserts the quotes to store
+     * @param deletedIds the ids of the quotes to delete
+     */
+    @Transactional
+    public void apply(Collection<StoredQuote> upserts, Collection<String> deletedIds) {
+        if (!upserts.isEmpty()) {
+            Map<String, QuoteEntity> existing = quoteRepository.findAllById(
+                    upserts.stream().map(stored -> stored.quote().getId()).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(QuoteEntity::getId, Function.identity()));
+
+            List<QuoteEntity> entities = new ArrayList<>(upserts.size());
+            Instant now = Instant.now();
+            for (StoredQuote stored : upserts) {
+                QuoteEntity entity = existing.get(stored.quote().getId());
+                if (entity == null) {
+                    entity = new QuoteEntity();
+                    entity.setId(stored.quote().getId());
+                }
+                try {
+                    fill(entity, stored, now);
+                    entities.add(entity);
+                } catch (JsonProcessingException e) {
+                    log.warn("Could not persist quote {}: {}", stored.quote().getId(), e.getMessage());
+                }
+            }
+            quoteRepository.saveAll(entities);
+        }
+        if (!deletedIds.isEmpty()) {
+            quoteRepository.deleteAllById(deletedIds);
+        }
+    }
+
+    private void fill(QuoteEntity entity, StoredQuote stored, Instant now) throws JsonProcessingException {
+        entity.setPayload(objectMapper.writeValueAsString(stored.quote()));
+        entity.setListingPosition(stored.position());
+        entity.setUpdatedAt(now);
+    }
+}
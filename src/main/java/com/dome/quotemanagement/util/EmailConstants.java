@@ -39,6 +39,45 @@ public final class EmailConstants {
 
 
 
+    // --- Quote Status Updated (sent to both parties, with a status description) ---
+    public static final String SUBJECT_QUOTE_STATUS_UPDATED = "Quote Status Updated - %s";
+
+    public static final String BODY_QUOTE_STATUS_UPDATED_CUSTOMER = "Your quote (ID: %s) status has been updated to: %s\n\n%s";
+
+    public static final String BODY_QUOTE_STATUS_UPDATED_SELLER = "Quote (ID: %s) status has been updated to: %s\n\n%s";
+
+    // Status descriptions
+    public static final String DESCRIPTION_STATUS_IN_PROGRESS = "The quote is currently being processed by our sales team. We are working on building the quote according to your requirements.";
+
+    public static final String DESCRIPTION_STATUS_PENDING = "The quote is pending validation from our perspective for tariff validation or to capture detailed information.";
+
+    public static final String DESCRIPTION_STATUS_APPROVED = "The quote has been internally approved and is ready for your review. The quote is no longer updatable.";
+
+    public static final String DESCRIPTION_STATUS_CANCELLED = "The quote process has been stopped. This quote has never been sent to the customer.";
+
+    public static final String DESCRIPTION_STATUS_ACCEPTED = "The quote has been accepted and signed by the customer. The order has been committed.";
+
+    public static final String DESCRIPTION_STATUS_REJECTED = "The quote has been rejected by the customer. No further quotes will be initiated from this quotation.";
+
+    public static final String DESCRIPTION_STATUS_OTHER = "The quote status has been updated. Please review the quote for more details.";
+
+    // --- Coordinator Tender Status Updated by the scheduler ---
+    public static final String SUBJECT_TENDER_STATUS_UPDATE = "Tender Status Update";
+
+    public static final String BODY_TENDER_STATUS_APPROVED = "Coordinator Tender (ID: %s) has been automatically approved. The expected fulfillment start date (%s) has been reached.";
+
+    public static final String BODY_TENDER_STATUS_ACCEPTED = "Coordinator Tender (ID: %s) has been automatically accepted. The effective completion date (%s) has been reached.";
+
+    public static final String BODY_TENDER_STATUS_UPDATED = "Coordinator Tender (ID: %s) status has been updated to: %s";
+
+    // --- Quote Expired, cancelled by the scheduler ---
+    public static final String SUBJECT_QUOTE_EXPIRED = "Quote Expired";
+
+    public static final String BODY_QUOTE_EXPIRED = "Quote (ID: %s) has been automatically cancelled due to expiration of the requested completion date (%s).";
+
+    // --- Separator between the bodies of notifications merged into one email ---
+    public static final String SEPARATOR_MERGED_MESSAGES = "<hr><br>";
+
     // --- Prefixes used to detect note type from messageContent ---
     public static final String PREFIX_ATTACHMENT_UPLOADED = "Attachment uploaded: ";
 
@@ -0,0 +1,129 @@
+package com.dome.quotemanagement.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A notification body template parsed once into literal and argument segments, so rendering only appends.
+ *
+ * Templates use the {@link String#format} subset found in {@link EmailConstants}: %s for the next argument,
+ * %1$s for an explicit one, %n and %%. Any other conversion is rejected when the template is compiled.
+ */
+public final class NotificationTemplate {
+
+    /** Builders larger than this are not kept for reuse, so one huge message does not pin its buffer. */
+    private static final int MAX_REUSED_CAPACITY = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    /** Literal text, or the index of an argument when literal is null. */
+    private record Segment(String literal, int argument) {}
+
+    private final String pattern;
+    private final Segment[] segments;
+    private final int literalLength;
+
+    private NotificationTemplate(String pattern, Segment[] segments, int literalLength) {
+        this.pattern = pattern;
+        this.segments = segments;
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * Parse a template.
+     * @param pattern the template, in String.format syntax
+     * @return the compiled template
+     * @throws IllegalArgumentException if the template uses an unsupported conversion
+     */
+    public static NotificationTemplate compile(String pattern) {
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int literalLength = 0;
+        int nextArgument = 0;
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            if (i + 1 >= pattern.length()) {
+                throw new IllegalArgumentException("Dangling '%' at the end of template: " + pattern);
+            }
+            char next = pattern.charAt(i + 1);
+            if (next == '%') {
+                literal.append('%');
+                i += 2;
+                continue;
+            }
+            if (next == 'n') {
+                literal.append(System.lineSeparator());
+                i += 2;
+                continue;
+            }
+            int argument;
+            int end;
+            if (next == 's') {
+                argument = nextArgument++;
+                end = i + 2;
+            } else {
+                int dollar = pattern.indexOf("$s", i + 1);
+                if (dollar < 0 || !pattern.substring(i + 1, dollar).chars().allMatch(Character::isDigit) || dollar == i + 1) {
+                    throw new IllegalArgumentException("Unsupported conversion at index " + i + " in template: " + pattern);
+                }
+                argument = Integer.parseInt(pattern.substring(i + 1, dollar)) - 1;
+                end = dollar + 2;
+            }
+            if (literal.length() > 0) {
+                literalLength += literal.length();
+                segments.add(new Segment(literal.toString(), -1));
+                literal.setLength(0);
+            }
+            segments.add(new Segment(null, argument));
+            i = end;
+        }
+        if (literal.length() > 0) {
+            literalLength += literal.length();
+            segments.add(new Segment(literal.toString(), -1));
+        }
+        return new NotificationTemplate(pattern, segments.toArray(new Segment[0]), literalLength);
+    }
+
+    /**
+     * Append the rendered template to a builder.
+     * @param out the builder to append to
+     * @param args the arguments; null ones render as "null", like String.format, and so do missing ones
+     * @return out
+     */
+    public StringBuilder appendTo(StringBuilder out, Object... args) {
+        out.ensureCapacity(out.length() + literalLength + 32 * args.length);
+        for (Segment segment : segments) {
+            if (segment.literal() != null) {
+                out.append(segment.literal());
+            } else {
+                out.append(segment.argument() < args.length ? args[segment.argument()] : null);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Render the template using a builder reused by the calling thread.
+     * @param args the arguments
+     * @return the rendered text
+     */
+    public String render(Object... args) {
+        StringBuilder out = BUILDER.get();
+        out.setLength(0);
+        String rendered = appendTo(out, args).toString();
+        if (out.capacity() > MAX_REUSED_CAPACITY) {
+            BUILDER.remove();
+        }
+        return rendered;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+}
@@ -0,0 +1,101 @@
+package com.dome.quotemanagement.controller;
+
+import com.dome.quotemanagement.dto.NotificationBatchRequestDTO;
+import com.dome.quotemanagement.dto.NotificationRequestDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in for the charging backend notification routes, served by the application under test. Accepts single
+ * and batch notifications and counts requests, notifications and repeated idempotency keys, so the request
+ * savings of batching can be asserted. The batch route can be switched off to exercise the fallback.
+ */
+@RestController
+@ConditionalOnProperty(name = "notification.stub.enabled", havingValue = "true")
+@Slf4j
+public class NotificationStubController {
+
+    private volatile boolean batchSupported = true;
+
+    private final AtomicLong singleRequests = new AtomicLong();
+    private final AtomicLong batchRequests = new AtomicLong();
+    private final AtomicLong rejectedBatchRequests = new AtomicLong();
+    private final AtomicLong notifications = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final Set<String> seenKeys = ConcurrentHashMap.newKeySet();
+
+    @PostMapping("${notification.api.endpoint}")
+    public ResponseEntity<Void> notify(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody NotificationRequestDTO notification) {
+        singleRequests.incrementAndGet();
+        receive(idempotencyKey);
+        log.debug("Stub received notification {} for recipient '{}'", idempotencyKey, notification.getRecipient());
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("${notification.api.batch-endpoint}")
+    public ResponseEntity<Void> notifyBatch(@RequestBody NotificationBatchRequestDTO batch) {
+        if (!batchSupported) {
+            rejectedBatchRequests.incrementAndGet();
+            return ResponseEntity.notFound().build();
+        }
+        batchRequests.incrementAndGet();
+        if (batch.getNotifications() != null) {
+            batch.getNotifications().forEach(item -> receive(item.getIdempotencyKey()));
+        }
+        log.debug("Stub received a batch of {} notifications",
+            batch.getNotifications() != null ? batch.getNotifications().size() : 0);
+        return ResponseEntity.ok().build();
+    }
+
+    public void setBatchSupported(boolean batchSupported) {
+        this.batchSupported = batchSupported;
+    }
+
+    public long getSingleRequests() {
+        return singleRequests.get();
+    }
+
+    public long getBatchRequests() {
+        return batchRequests.get();
+    }
+
+    public long getRejectedBatchRequests() {
+        return rejectedBatchRequests.get();
+    }
+
+    public long getNotifications() {
+        return notifications.get();
+    }
+
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    /**
+     * Reset the counters and accept batches again.
+     */
+    public void reset() {
+        batchSupported = true;
+        singleRequests.set(0);
+        batchRequests.set(0);
+        rejectedBatchRequests.set(0);
+        notifications.set(0);
+        duplicates.set(0);
+        seenKeys.clear();
+    }
+
+    private void receive(String idempotencyKey) {
+        notifications.incrementAndGet();
+        if (idempotencyKey != null && !seenKeys.add(idempotencyKey)) {
+            duplicates.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.controller.NotificationStubController;
+import com.dome.quotemanagement.dto.NotificationRequestDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Delivers notifications to {@link NotificationStubController}, served by the application itself, and checks
+ * how many requests reach the backend: bursts go out as one batch request, a backend without the batch route
+ * gets single requests, and the batch route is only tried again after the 10-minute recheck.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("local")
+class NotificationDispatcherBatchingTest {
+
+    private static final int BURST = 10;
+    private static final Duration DELIVERY_TIMEOUT = Duration.ofSeconds(10);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private NotificationStubController stub;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("management.server.port", () -> -1);
+        registry.add("notification.stub.enabled", () -> true);
+        // Deliver straight from the queue, with one worker collecting the whole burst into a batch
+        registry.add("notification.outbox.enabled", () -> false);
+        registry.add("notification.dispatch.workers", () -> 1);
+        registry.add("notification.dispatch.batch-size", () -> 50);
+        registry.add("notification.dispatch.batch-linger-ms", () -> 500);
+        // No TMForum behind this test
+        registry.add("quote.read-model.enabled", () -> false);
+        registry.add("quote.scheduler.cron", () -> "0 0 0 1 1 ?");
+        registry.add("quote.scheduler.deadline-poll-ms", () -> 3600000);
+        registry.add("document.gc.enabled", () -> false);
+    }
+
+    @BeforeEach
+    void resetStub() {
+        stub.reset();
+        notificationDispatcher.setNotificationBaseUrl("http://localhost:" + port);
+        notificationDispatcher.resetBatchRoute();
+    }
+
+    @Test
+    void burstIsSentAsOneBatchRequest() throws InterruptedException {
+        dispatchBurst("batch");
+
+        awaitNotifications(BURST);
+        assertThat(stub.getBatchRequests()).isEqualTo(1);
+        assertThat(stub.getSingleRequests()).isZero();
+        assertThat(stub.getDuplicates()).isZero();
+    }
+
+    @Test
+    void missingBatchRouteFallsBackToSingleRequests() throws InterruptedException {
+        stub.setBatchSupported(false);
+
+        dispatchBurst("fallback");
+
+        awaitNotifications(BURST);
+        assertThat(stub.getRejectedBatchRequests()).isEqualTo(1);
+        assertThat(stub.getBatchRequests()).isZero();
+        assertThat(stub.getSingleRequests()).isEqualTo(BURST);
+        assertThat(stub.getDuplicates()).isZero();
+    }
+
+    @Test
+    void batchRouteIsRecheckedAfterTenMinutes() throws InterruptedException {
+        stub.setBatchSupported(false);
+        dispatchBurst("before-recheck");
+        awaitNotifications(BURST);
+
+        assertThat(notificationDispatcher.batchRouteRecheckIn()).isBetween(Duration.ofMinutes(9), Duration.ofMinutes(10));
+
+        // Within the 10 minutes the batch route is not tried again, even once the backend offers it
+        stub.setBatchSupported(true);
+        dispatchBurst("within-recheck");
+        awaitNotifications(2 * BURST);
+        assertThat(stub.getRejectedBatchRequests()).isEqualTo(1);
+        assertThat(stub.getBatchRequests()).isZero();
+        assertThat(stub.getSingleRequests()).isEqualTo(2 * BURST);
+
+        // Once they have passed, the next burst goes out as a batch again
+        notificationDispatcher.resetBatchRoute();
+        dispatchBurst("after-recheck");
+        awaitNotifications(3 * BURST);
+        assertThat(stub.getBatchRequests()).isEqualTo(1);
+        assertThat(stub.getSingleRequests()).isEqualTo(2 * BURST);
+    }
+
+    private void dispatchBurst(String name) {
+        for (int i = 0; i < BURST; i++) {
+            notificationDispatcher.dispatch(NotificationRequestDTO.builder()
+                .sender("seller")
+                .recipient("customer")
+                .subject("Subject " + name)
+                .message("Message " + i)
+                .build());
+        }
+    }
+
+    private void awaitNotifications(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + DELIVERY_TIMEOUT.toNanos();
+        while (stub.getNotifications() < expected && System.nanoTime() - deadline < 0) {
+            Thread.sleep(50);
+        }
+        assertThat(stub.getNotifications()).isEqualTo(expected);
+    }
+}
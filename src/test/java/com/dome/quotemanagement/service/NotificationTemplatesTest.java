@@ -0,0 +1,101 @@
+package com.dome.quotemanagement.service;
+
+import com.dome.quotemanagement.enums.QuoteStatus;
+import com.dome.quotemanagement.util.EmailConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the default templates and the locale variants shipped on the classpath.
+ */
+class NotificationTemplatesTest {
+
+    private static final Object[] ARGS = {"<arg1>", "<arg2>", "<arg3>"};
+
+    @Test
+    void defaultLocaleRendersTheEmailConstants() {
+        NotificationTemplates templates = templates("en");
+
+        assertThat(templates.render(NotificationTemplates.Template.NEW_ATTACHMENT_UPLOADED, "offer.pdf", "ACME"))
+            .isEqualTo(String.format(EmailConstants.BODY_NEW_ATTACHMENT_UPLOADED, "offer.pdf", "ACME"));
+        assertThat(templates.renderStatus(QuoteStatus.APPROVED, "approved", "ACME"))
+            .isEqualTo(String.format(EmailConstants.BODY_STATUS_APPROVED, "approved", "ACME"));
+        assertThat(templates.renderStatus(QuoteStatus.REJECTED, "rejected", "ACME")).isNull();
+        assertThat(templates.renderTenderStatus(QuoteStatus.ACCEPTED, "t1", "2024-05-17T09:30"))
+            .isEqualTo(String.format(EmailConstants.BODY_TENDER_STATUS_ACCEPTED, "t1", "2024-05-17T09:30"));
+        assertThat(templates.renderTenderStatus(QuoteStatus.CANCELLED, "t1", "2024-05-17T09:30")).isNull();
+        assertThat(templates.describeStatus(QuoteStatus.PENDING)).isEqualTo(EmailConstants.DESCRIPTION_STATUS_PENDING);
+        assertThat(templates.describeStatus(null)).isEqualTo(EmailConstants.DESCRIPTION_STATUS_OTHER);
+    }
+
+    @Test
+    void spanishVariantIsLoaded() {
+        NotificationTemplates templates = templates("es");
+
+        assertThat(templates.render(NotificationTemplates.Template.NEW_ATTACHMENT_UPLOADED, "offer.pdf", "ACME"))
+            .startsWith("ACME ha subido un nuevo documento offer.pdf a su cotización.")
+            .endsWith(EmailConstants.FOOTER_DO_NOT_REPLY);
+        assertThat(templates.renderStatus(QuoteStatus.CANCELLED, "cancelled", "ACME"))
+            .startsWith("Nuevo estado: cancelled<br><br>ACME ha actualizado");
+        assertThat(templates.describeStatus(QuoteStatus.REJECTED)).startsWith("El cliente ha rechazado");
+        assertThat(templates.render(NotificationTemplates.Template.QUOTE_STATUS_UPDATED_CUSTOMER, "q1", "approved", "desc"))
+            .isEqualTo("El estado de su cotización (ID: q1) se ha actualizado a: approved\n\ndesc");
+        assertThat(templates.render(NotificationTemplates.Template.QUOTE_EXPIRED_SUBJECT)).isEqualTo("Cotización vencida");
+    }
+
+    @Test
+    void regionalLocaleFallsBackToTheLanguageVariant() {
+        assertThat(templates("es-MX").describeStatus(QuoteStatus.ACCEPTED))
+            .isEqualTo(templates("es").describeStatus(QuoteStatus.ACCEPTED));
+    }
+
+    @Test
+    void unknownLocaleFallsBackToTheDefaults() {
+        assertThat(templates("fr").render(NotificationTemplates.Template.QUOTE_EXPIRED, "q1", "2024-05-17T09:30"))
+            .isEqualTo(String.format(EmailConstants.BODY_QUOTE_EXPIRED, "q1", "2024-05-17T09:30"));
+    }
+
+    @Test
+    void spanishTemplatesUseTheSameArgumentsAsTheDefaults() {
+        NotificationTemplates english = templates("en");
+        NotificationTemplates spanish = templates("es");
+
+        for (NotificationTemplates.Template template : NotificationTemplates.Template.values()) {
+            String translated = spanish.render(template, ARGS);
+            assertThat(translated).as(template.name()).isNotEqualTo(english.render(template, ARGS));
+            assertUsesSameArguments(template.name(), english.render(template, ARGS), translated);
+        }
+        for (QuoteStatus status : QuoteStatus.values()) {
+            String body = english.renderStatus(status, ARGS);
+            if (body != null) {
+                String translated = spanish.renderStatus(status, ARGS);
+                assertThat(translated).as(status.name()).isNotEqualTo(body);
+                assertUsesSameArguments(status.name(), body, translated);
+            }
+            String tenderBody = english.renderTenderStatus(status, ARGS);
+            if (tenderBody != null) {
+                String translated = spanish.renderTenderStatus(status, ARGS);
+                assertThat(translated).as("tender " + status.name()).isNotEqualTo(tenderBody);
+                assertUsesSameArguments("tender " + status.name(), tenderBody, translated);
+            }
+            assertThat(spanish.describeStatus(status)).as(status.name()).isNotEqualTo(english.describeStatus(status));
+        }
+    }
+
+    private static void assertUsesSameArguments(String name, String original, String translated) {
+        for (Object arg : ARGS) {
+            assertThat(translated.contains(arg.toString()))
+                .as(name + " uses " + arg)
+                .isEqualTo(original.contains(arg.toString()));
+        }
+    }
+
+    private static NotificationTemplates templates(String localeTag) {
+        NotificationTemplates templates = new NotificationTemplates();
+        ReflectionTestUtils.setField(templates, "localeTag", localeTag);
+        templates.init();
+        return templates;
+    }
+}
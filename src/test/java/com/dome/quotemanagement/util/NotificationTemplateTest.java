@@ -0,0 +1,55 @@
+package com.dome.quotemanagement.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that compiled templates render exactly like {@link String#format}, which they replace.
+ */
+class NotificationTemplateTest {
+
+    private static final Object[] ARGS = {"first", "second <b>", LocalDateTime.of(2024, 5, 17, 9, 30), 42, "fifth"};
+
+    @Test
+    void everyEmailConstantRendersLikeStringFormat() throws IllegalAccessException {
+        List<String> checked = new ArrayList<>();
+        for (Field field : EmailConstants.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) || field.getType() != String.class) {
+                continue;
+            }
+            String pattern = (String) field.get(null);
+            assertThat(NotificationTemplate.compile(pattern).render(ARGS))
+                .as(field.getName())
+                .isEqualTo(String.format(pattern, ARGS));
+            checked.add(field.getName());
+        }
+        assertThat(checked).contains("BODY_NEW_QUOTE_CREATED", "BODY_STATUS_APPROVED", "BODY_QUOTE_EXPIRED");
+    }
+
+    @Test
+    void nullArgumentsRenderLikeStringFormat() {
+        String pattern = EmailConstants.BODY_NEW_NOTE_ADDED;
+        assertThat(NotificationTemplate.compile(pattern).render("ACME", null))
+            .isEqualTo(String.format(pattern, "ACME", null));
+    }
+
+    @Test
+    void explicitIndexesEscapesAndLineSeparatorsRenderLikeStringFormat() {
+        String pattern = "%2$s uploaded %1$s (100%%)%n%s then %s";
+        assertThat(NotificationTemplate.compile(pattern).render(ARGS)).isEqualTo(String.format(pattern, ARGS));
+    }
+
+    @Test
+    void unsupportedConversionsAreRejected() {
+        assertThatThrownBy(() -> NotificationTemplate.compile("Quote %d")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> NotificationTemplate.compile("Quote %")).isInstanceOf(IllegalArgumentException.class);
+    }
+}